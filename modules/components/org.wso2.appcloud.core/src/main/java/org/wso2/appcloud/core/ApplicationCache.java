@@ -0,0 +1,216 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded read through cache of application metadata. Entries expire after a configurable time, and entries of
+ * a tenant are invalidated explicitly by the methods of {@link ApplicationManager} updating them. Metadata which is
+ * not specific to a tenant, such as runtimes and app types, is cached once for all the tenants.
+ * <p>
+ * Invalidation is local to this node. When several nodes update the same metadata, the expiry time is the only bound
+ * on how long a node serves values updated by another node.
+ */
+public class ApplicationCache {
+
+    private static final Log log = LogFactory.getLog(ApplicationCache.class);
+
+    public static final String PROPERTY_ENABLED = "ApplicationCache.Enabled";
+    public static final String PROPERTY_MAX_SIZE = "ApplicationCache.MaxSize";
+    public static final String PROPERTY_TTL = "ApplicationCache.TTL";
+    private static final int DEFAULT_MAX_SIZE = 2000;
+    private static final int DEFAULT_TTL = 60000;
+
+    /**
+     * Scope of the entries shared by all the tenants.
+     */
+    static final int SHARED_SCOPE = -1;
+
+    enum Region {
+        APPLICATION,
+        RUNTIME,
+        RUNTIMES_FOR_APP_TYPE,
+        APP_TYPES_FOR_CLOUD,
+        TRANSPORTS_FOR_RUNTIME,
+        CLOUD_TYPES,
+        CONTAINER_SPECIFICATIONS_FOR_RUNTIME
+    }
+
+    private static final boolean enabled = Util.getBooleanPropertyValue(PROPERTY_ENABLED, true);
+    private static final Cache<CacheKey, Object> cache = CacheBuilder.newBuilder()
+            .maximumSize(Util.getIntPropertyValue(PROPERTY_MAX_SIZE, DEFAULT_MAX_SIZE))
+            .expireAfterWrite(Util.getIntPropertyValue(PROPERTY_TTL, DEFAULT_TTL), TimeUnit.MILLISECONDS)
+            .build();
+
+    /**
+     * Generation of each region in each scope, keyed by a cache key without a key within the region. A generation is
+     * incremented on each invalidation, so that values loaded before the invalidation are not cached afterwards.
+     */
+    private static final ConcurrentMap<CacheKey, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Generation of all the regions, incremented when all the values are invalidated.
+     */
+    private static final AtomicLong globalGeneration = new AtomicLong();
+
+    private ApplicationCache() {
+    }
+
+    /**
+     * Get a cached value, loading and caching it if it is not cached. Null values are not cached.
+     *
+     * @param scope  tenant id the value belongs to, or {@link #SHARED_SCOPE}
+     * @param region region of the value
+     * @param key    key of the value within the region
+     * @param loader loader of the value
+     * @param <V>    type of the value
+     * @return cached or loaded value
+     * @throws AppCloudException if loading the value failed
+     */
+    @SuppressWarnings("unchecked")
+    static <V> V get(int scope, Region region, Object key, Callable<V> loader) throws AppCloudException {
+        if (!enabled) {
+            return load(loader);
+        }
+        CacheKey cacheKey = new CacheKey(scope, region, key);
+        V value = (V) cache.getIfPresent(cacheKey);
+        if (value != null) {
+            return value;
+        }
+        long generation = getGeneration(scope, region);
+        value = load(loader);
+        if (value != null && generation == getGeneration(scope, region)) {
+            cache.put(cacheKey, value);
+            // an invalidation between checking the generation and caching the value may have missed the value
+            if (generation != getGeneration(scope, region)) {
+                cache.asMap().remove(cacheKey, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalidate all the cached values of a region in a scope.
+     *
+     * @param scope  tenant id the values belong to, or {@link #SHARED_SCOPE}
+     * @param region region of the values
+     */
+    static void invalidate(int scope, Region region) {
+        getGenerationCounter(scope, region).incrementAndGet();
+        Iterator<CacheKey> iterator = cache.asMap().keySet().iterator();
+        while (iterator.hasNext()) {
+            CacheKey cacheKey = iterator.next();
+            if (cacheKey.scope == scope && cacheKey.region == region) {
+                iterator.remove();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated cached " + region + " entries in scope : " + scope);
+        }
+    }
+
+    /**
+     * Invalidate all the cached applications of a tenant.
+     *
+     * @param tenantId id of tenant
+     */
+    static void invalidateApplications(int tenantId) {
+        invalidate(tenantId, Region.APPLICATION);
+    }
+
+    /**
+     * Invalidate all the cached values.
+     */
+    public static void invalidateAll() {
+        globalGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static long getGeneration(int scope, Region region) {
+        // both generations only increase, hence their sum changes whenever either of them changes
+        return globalGeneration.get() + getGenerationCounter(scope, region).get();
+    }
+
+    private static AtomicLong getGenerationCounter(int scope, Region region) {
+        CacheKey generationKey = new CacheKey(scope, region, null);
+        AtomicLong generation = generations.get(generationKey);
+        if (generation == null) {
+            AtomicLong newGeneration = new AtomicLong();
+            generation = generations.putIfAbsent(generationKey, newGeneration);
+            if (generation == null) {
+                generation = newGeneration;
+            }
+        }
+        return generation;
+    }
+
+    private static <V> V load(Callable<V> loader) throws AppCloudException {
+        try {
+            return loader.call();
+        } catch (AppCloudException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppCloudException("Error while loading application metadata", e);
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final int scope;
+        private final Region region;
+        private final Object key;
+
+        private CacheKey(int scope, Region region, Object key) {
+            this.scope = scope;
+            this.region = region;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) object;
+            return scope == cacheKey.scope && region == cacheKey.region
+                    && (key == null ? cacheKey.key == null : key.equals(cacheKey.key));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = scope;
+            result = 31 * result + region.hashCode();
+            result = 31 * result + (key != null ? key.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.dto.Event;
+import org.wso2.appcloud.core.dto.EventSnapshot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In process bus of application creation events, keyed by the hash id of the application version. Events added
+ * through {@link EventsManager} are published to the listeners of the version as soon as they are committed.
+ * <p>
+ * The bus also keeps the latest event of each name for the versions being watched, so that clients waiting for the
+ * progress of a version are answered from memory as soon as an event is published. The events of a version are read
+ * from the database only to catch up, i.e. when the version is watched for the first time, or when no event was
+ * published within the wait timeout, since the events may have been added by another node.
+ */
+public class ApplicationEventBus {
+
+    private static final Log log = LogFactory.getLog(ApplicationEventBus.class);
+
+    public static final String PROPERTY_WAIT_TIMEOUT = "ApplicationEventBus.WaitTimeout";
+    public static final String PROPERTY_MAX_WAITERS = "ApplicationEventBus.MaxWaiters";
+    public static final String PROPERTY_WATCH_EXPIRY = "ApplicationEventBus.WatchExpiry";
+    private static final int DEFAULT_WAIT_TIMEOUT = 25000;
+    private static final int DEFAULT_MAX_WAITERS = 50;
+    private static final int DEFAULT_WATCH_EXPIRY = 600000;
+    private static final int MAX_WATCHED_VERSIONS = 10000;
+
+    private static final ApplicationEventBus applicationEventBus = new ApplicationEventBus();
+
+    private final Map<String, List<ApplicationEventListener>> listeners = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WatchedVersion> watchedVersions;
+    private final Semaphore waiters;
+    private final long waitTimeout;
+
+    private ApplicationEventBus() {
+        waitTimeout = Util.getIntPropertyValue(PROPERTY_WAIT_TIMEOUT, DEFAULT_WAIT_TIMEOUT);
+        waiters = new Semaphore(Util.getIntPropertyValue(PROPERTY_MAX_WAITERS, DEFAULT_MAX_WAITERS));
+        Cache<String, WatchedVersion> cache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_WATCHED_VERSIONS)
+                .expireAfterAccess(Util.getIntPropertyValue(PROPERTY_WATCH_EXPIRY, DEFAULT_WATCH_EXPIRY),
+                        TimeUnit.MILLISECONDS)
+                .build();
+        watchedVersions = cache.asMap();
+    }
+
+    public static ApplicationEventBus getInstance() {
+        return applicationEventBus;
+    }
+
+    /**
+     * Subscribe to the events of an application version.
+     *
+     * @param versionHashId hash id of version
+     * @param listener      listener of the events
+     */
+    public void subscribe(String versionHashId, ApplicationEventListener listener) {
+        synchronized (listeners) {
+            List<ApplicationEventListener> versionListeners = listeners.get(versionHashId);
+            if (versionListeners == null) {
+                versionListeners = new CopyOnWriteArrayList<>();
+                listeners.put(versionHashId, versionListeners);
+            }
+            versionListeners.add(listener);
+        }
+    }
+
+    /**
+     * Unsubscribe from the events of an application version.
+     *
+     * @param versionHashId hash id of version
+     * @param listener      listener of the events
+     */
+    public void unsubscribe(String versionHashId, ApplicationEventListener listener) {
+        synchronized (listeners) {
+            List<ApplicationEventListener> versionListeners = listeners.get(versionHashId);
+            if (versionListeners != null && versionListeners.remove(listener) && versionListeners.isEmpty()) {
+                listeners.remove(versionHashId);
+            }
+        }
+    }
+
+    /**
+     * Publish an application creation event to the listeners and the clients waiting for the events of the version.
+     *
+     * @param versionHashId hash id of version
+     * @param event         application creation event
+     */
+    public void publish(String versionHashId, Event event) {
+        WatchedVersion watchedVersion = watchedVersions.get(versionHashId);
+        if (watchedVersion != null) {
+            watchedVersion.update(event);
+        }
+        List<ApplicationEventListener> versionListeners = listeners.get(versionHashId);
+        if (versionListeners != null) {
+            for (ApplicationEventListener listener : versionListeners) {
+                try {
+                    listener.onEvent(versionHashId, event);
+                } catch (RuntimeException e) {
+                    log.error("Error occurred in listener of application creation events for version hash id : "
+                            + versionHashId, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discard the events kept for an application version, after the events of the version are deleted.
+     *
+     * @param versionHashId hash id of version
+     */
+    public void clear(String versionHashId) {
+        WatchedVersion watchedVersion = watchedVersions.get(versionHashId);
+        if (watchedVersion != null) {
+            watchedVersion.clear();
+        }
+    }
+
+    /**
+     * Wait until the events of an application version differ from the snapshot with the given sequence number. If the
+     * maximum number of clients are already waiting, the current snapshot is returned without waiting.
+     *
+     * @param versionHashId hash id of version
+     * @param sequence      sequence number of the snapshot the client has, or -1 if it has none
+     * @return latest snapshot, or null if the events of the version have to be read from the database to catch up
+     */
+    public EventSnapshot awaitEvents(String versionHashId, long sequence) {
+        WatchedVersion watchedVersion = watchedVersions.get(versionHashId);
+        if (watchedVersion == null) {
+            return null;
+        }
+        if (!waiters.tryAcquire()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum number of clients are waiting for application creation events, hence not waiting"
+                        + " for the events of version hash id : " + versionHashId);
+            }
+            return watchedVersion.latestSnapshot();
+        }
+        try {
+            return watchedVersion.await(sequence, waitTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return watchedVersion.latestSnapshot();
+        } finally {
+            waiters.release();
+        }
+    }
+
+    /**
+     * Replace the events kept for an application version with the events read from the database. Events published
+     * while reading the database are applied on top of the loaded events, hence they are not lost.
+     *
+     * @param versionHashId hash id of version
+     * @param loader        loader of the events of the version from the database, in the order they were added
+     * @return snapshot of the loaded events
+     * @throws AppCloudException if loading the events failed
+     */
+    EventSnapshot catchUp(String versionHashId, Callable<List<Event>> loader) throws AppCloudException {
+        WatchedVersion watchedVersion = new WatchedVersion();
+        WatchedVersion existingVersion = watchedVersions.putIfAbsent(versionHashId, watchedVersion);
+        if (existingVersion != null) {
+            watchedVersion = existingVersion;
+        }
+        watchedVersion.beginCatchUp();
+        List<Event> events;
+        try {
+            events = loader.call();
+        } catch (AppCloudException e) {
+            watchedVersion.endCatchUp(null);
+            throw e;
+        } catch (Exception e) {
+            watchedVersion.endCatchUp(null);
+            throw new AppCloudException("Error while loading application creation events for version hash id : "
+                    + versionHashId, e);
+        }
+        return watchedVersion.endCatchUp(events);
+    }
+
+    /**
+     * Latest event of each name for an application version.
+     */
+    private static final class WatchedVersion {
+
+        private final Map<String, Event> latestEvents = new LinkedHashMap<>();
+        private List<Event> eventsDuringCatchUp;
+        private int catchUpCount;
+        private boolean caughtUp;
+        private long sequence;
+
+        private synchronized void update(Event event) {
+            putLatestEvent(event);
+            if (eventsDuringCatchUp != null) {
+                eventsDuringCatchUp.add(event);
+            }
+            changed();
+        }
+
+        private synchronized void clear() {
+            latestEvents.clear();
+            changed();
+        }
+
+        private synchronized void beginCatchUp() {
+            if (catchUpCount++ == 0) {
+                eventsDuringCatchUp = new ArrayList<>();
+            }
+        }
+
+        /**
+         * @param events loaded events, or null if loading failed
+         */
+        private synchronized EventSnapshot endCatchUp(List<Event> events) {
+            if (events != null) {
+                latestEvents.clear();
+                for (Event event : events) {
+                    putLatestEvent(event);
+                }
+                for (Event event : eventsDuringCatchUp) {
+                    putLatestEvent(event);
+                }
+                caughtUp = true;
+                changed();
+            }
+            if (--catchUpCount == 0) {
+                eventsDuringCatchUp = null;
+            }
+            return snapshot();
+        }
+
+        private synchronized EventSnapshot await(long lastSequence, long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while (caughtUp && sequence == lastSequence && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return caughtUp && sequence != lastSequence ? snapshot() : null;
+        }
+
+        /**
+         * @return snapshot of the events, or null if the events were not read from the database yet
+         */
+        private synchronized EventSnapshot latestSnapshot() {
+            return caughtUp ? snapshot() : null;
+        }
+
+        private synchronized EventSnapshot snapshot() {
+            return new EventSnapshot(sequence, latestEvents.values().toArray(new Event[latestEvents.size()]));
+        }
+
+        private void putLatestEvent(Event event) {
+            // the events are ordered by the time the latest event of each name was added
+            latestEvents.remove(event.getEventName());
+            latestEvents.put(event.getEventName(), event);
+        }
+
+        private void changed() {
+            sequence++;
+            notifyAll();
+        }
+    }
+}
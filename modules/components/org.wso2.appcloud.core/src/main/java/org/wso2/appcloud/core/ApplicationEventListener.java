@@ -0,0 +1,34 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.wso2.appcloud.core.dto.Event;
+
+/**
+ * Receives the application creation events published to {@link ApplicationEventBus} for an application version.
+ */
+public interface ApplicationEventListener {
+
+    /**
+     * Handle an application creation event. Events are delivered on the thread adding the event, hence listeners
+     * should not block.
+     *
+     * @param versionHashId hash id of the version the event belongs to
+     * @param event         application creation event
+     */
+    void onEvent(String versionHashId, Event event);
+}
@@ -43,6 +43,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * This class provide the interface for accessing the dao layer.
@@ -51,6 +52,11 @@ public class ApplicationManager {
 
     private static Log log = LogFactory.getLog(ApplicationManager.class);
 
+    private static final String TENANT_DELETE_CHUNK_SIZE = "Tenant.Delete.ChunkSize";
+    private static final int DEFAULT_TENANT_DELETE_CHUNK_SIZE = 100;
+    private static final String APPLICATION_VERSIONS_PAGE_SIZE = "Admin.ApplicationVersions.PageSize";
+    private static final int DEFAULT_APPLICATION_VERSIONS_PAGE_SIZE = 500;
+
     /**
      * Method for adding application.
      *
@@ -63,6 +69,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().addApplication(dbConnection, application, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while adding application with name : " + application.getApplicationName() +
                     " for tenant id : " + tenantId;
@@ -92,6 +99,7 @@ public class ApplicationManager {
                     getApplicationId(dbConnection, applicationHashId, tenantId);
             ApplicationDAO.getInstance().addVersion(dbConnection, version, applicationId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while adding application version for application hash id : " + applicationHashId +
                     "and version :" + version.getVersionName() + " for tenant id : " + tenantId;
@@ -125,6 +133,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().addRunTimeProperties(dbConnection, runtimeProperties, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while adding runtime properties for version with version id : " + versionHashId +
                     " for tenant id : " + tenantId;
@@ -157,6 +166,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().addTags(dbConnection, tags, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while adding tags for version with hash id : " + versionHashId + " for tenant id : " +
                     tenantId;
@@ -338,7 +348,18 @@ public class ApplicationManager {
      * @return application object
      * @throws AppCloudException
      */
-    public static Application getApplicationByHashId(String applicationHashId) throws AppCloudException {
+    public static Application getApplicationByHashId(final String applicationHashId) throws AppCloudException {
+        return ApplicationCache.get(CarbonContext.getThreadLocalCarbonContext().getTenantId(),
+                ApplicationCache.Region.APPLICATION, applicationHashId,
+                new Callable<Application>() {
+                    @Override
+                    public Application call() throws AppCloudException {
+                        return loadApplicationByHashId(applicationHashId);
+                    }
+                });
+    }
+
+    private static Application loadApplicationByHashId(String applicationHashId) throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
@@ -415,6 +436,7 @@ public class ApplicationManager {
             ApplicationDAO.getInstance().
                     updateRuntimeProperty(dbConnection, versionHashId, oldKey, newKey, newValue, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while adding runtime property with key : " + oldKey + " for version with hash id : " +
                     versionHashId + " for tenant id : " + tenantId;
@@ -446,6 +468,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().updateTag(dbConnection, versionHashId, oldKey, newKey, newValue, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while updating tag with the key : " + oldKey + " for version with hash id : " +
                     versionHashId + " for tenant id : " + tenantId;
@@ -475,6 +498,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().deleteRuntimeProperty(dbConnection, versionHashId, key, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while deleting runtime property with key : " + key + " for version with hash id : " +
                     versionHashId + " for tenant id : " + tenantId;
@@ -504,6 +528,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().deleteTag(dbConnection, versionHashId, key, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while deleting tag with key : " + key + " for version with hash id : " + versionHashId
                     + " for tenant id : " + tenantId;
@@ -538,6 +563,7 @@ public class ApplicationManager {
                 ApplicationDAO.getInstance().
                         updateApplicationIcon(dbConnection, iconInputStream, applicationId, tenantId);
                 dbConnection.commit();
+                ApplicationCache.invalidateApplications(tenantId);
             } catch (AppCloudException e) {
                 String msg = "Error while updating the application icon for application with hash id : "
                         + applicationHashId + " for tenant id : " + tenantId;
@@ -573,7 +599,19 @@ public class ApplicationManager {
      * @return list of app types
      * @throws AppCloudException
      */
-    public static ApplicationType[] getAllAppTypesForCloud(String cloudType) throws AppCloudException {
+    public static ApplicationType[] getAllAppTypesForCloud(final String cloudType) throws AppCloudException {
+        ApplicationType[] cached = ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.APP_TYPES_FOR_CLOUD, cloudType,
+                new Callable<ApplicationType[]>() {
+                    @Override
+                    public ApplicationType[] call() throws AppCloudException {
+                        return loadAllAppTypesForCloud(cloudType);
+                    }
+                });
+        return cached == null ? null : cached.clone();
+    }
+
+    private static ApplicationType[] loadAllAppTypesForCloud(String cloudType) throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
@@ -596,7 +634,19 @@ public class ApplicationManager {
      * @return list of application runtimes
      * @throws AppCloudException
      */
-    public static ApplicationRuntime[] getAllRuntimesForAppType(String appType)
+    public static ApplicationRuntime[] getAllRuntimesForAppType(final String appType) throws AppCloudException {
+        ApplicationRuntime[] cached = ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.RUNTIMES_FOR_APP_TYPE, appType,
+                new Callable<ApplicationRuntime[]>() {
+                    @Override
+                    public ApplicationRuntime[] call() throws AppCloudException {
+                        return loadAllRuntimesForAppType(appType);
+                    }
+                });
+        return cached == null ? null : cached.clone();
+    }
+
+    private static ApplicationRuntime[] loadAllRuntimesForAppType(String appType)
             throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
@@ -627,6 +677,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().updateVersionStatus(dbConnection, status, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while updating version status with status : " + status + " for version with hash id : "
                     + versionHashId + " for tenant id : " + tenantId;
@@ -655,6 +706,7 @@ public class ApplicationManager {
             ApplicationDAO.getInstance().deleteAllDeploymentOfApplication(dbConnection, applicationHashId, tenantId);
             ApplicationDAO.getInstance().deleteApplication(dbConnection, applicationHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while deleting application with hash id : " + applicationHashId + " for tenant id : "
                     + tenantId;
@@ -670,6 +722,91 @@ public class ApplicationManager {
         }
     }
 
+    /**
+     * Method for deleting all the applications of a tenant along with their versions, deployments, containers,
+     * service proxies, tags, runtime properties, events and icons. Rows are deleted with set based statements in
+     * chunks, each chunk in its own transaction, so that a large tenant neither holds locks on many rows nor uses
+     * more than one connection. Deleting the Kubernetes resources of the tenant is not handled by this method.
+     *
+     * @param tenantId id of tenant
+     * @return number of deleted applications
+     * @throws AppCloudException
+     */
+    public static int deleteAllApplicationsOfTenant(final int tenantId) throws AppCloudException {
+        final int chunkSize = Util.getIntPropertyValue(TENANT_DELETE_CHUNK_SIZE, DEFAULT_TENANT_DELETE_CHUNK_SIZE);
+        final ApplicationDAO applicationDAO = ApplicationDAO.getInstance();
+        Connection dbConnection = DBUtil.getDBConnection();
+        int deletedApplicationCount;
+        try {
+            deleteTenantDataInChunks(dbConnection, tenantId, "deployments", new TenantDataChunkDeleter() {
+                @Override
+                public int deleteChunk(Connection dbConnection) throws AppCloudException {
+                    return applicationDAO.deleteDeploymentsOfTenant(dbConnection, tenantId, chunkSize);
+                }
+            });
+            deleteTenantDataInChunks(dbConnection, tenantId, "events", new TenantDataChunkDeleter() {
+                @Override
+                public int deleteChunk(Connection dbConnection) throws AppCloudException {
+                    return applicationDAO.deleteEventsOfTenant(dbConnection, tenantId, chunkSize);
+                }
+            });
+            deleteTenantDataInChunks(dbConnection, tenantId, "application contexts", new TenantDataChunkDeleter() {
+                @Override
+                public int deleteChunk(Connection dbConnection) throws AppCloudException {
+                    return applicationDAO.deleteApplicationContextsOfTenant(dbConnection, tenantId, chunkSize);
+                }
+            });
+            deletedApplicationCount = deleteTenantDataInChunks(dbConnection, tenantId, "applications",
+                    new TenantDataChunkDeleter() {
+                        @Override
+                        public int deleteChunk(Connection dbConnection) throws AppCloudException {
+                            return applicationDAO.deleteApplicationsOfTenant(dbConnection, tenantId, chunkSize);
+                        }
+                    });
+        } finally {
+            ApplicationCache.invalidateApplications(tenantId);
+            DBUtil.closeConnection(dbConnection);
+        }
+        log.info("Deleted " + deletedApplicationCount + " applications of tenant id : " + tenantId);
+        return deletedApplicationCount;
+    }
+
+    private static int deleteTenantDataInChunks(Connection dbConnection, int tenantId, String description,
+                                                TenantDataChunkDeleter deleter) throws AppCloudException {
+        int deletedCount = 0;
+        try {
+            int deletedChunkCount;
+            do {
+                deletedChunkCount = deleter.deleteChunk(dbConnection);
+                dbConnection.commit();
+                deletedCount += deletedChunkCount;
+            } while (deletedChunkCount > 0);
+        } catch (AppCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while deleting " + description + " after deleting " + deletedCount + " of them for "
+                    + "tenant id : " + tenantId;
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing transaction for deleting " + description + " after deleting "
+                    + deletedCount + " of them for tenant id : " + tenantId;
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Deleted " + deletedCount + " " + description + " of tenant id : " + tenantId);
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Deletes a chunk of the data of a tenant within the current transaction of the given connection.
+     */
+    private interface TenantDataChunkDeleter {
+        int deleteChunk(Connection dbConnection) throws AppCloudException;
+    }
+
     /**
      * Method for deleting version of application.
      *
@@ -683,6 +820,7 @@ public class ApplicationManager {
             ApplicationDAO.getInstance().deleteDeployment(dbConnection, versionHashId, tenantId);
             ApplicationDAO.getInstance().deleteVersion(dbConnection, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while deleting the version with hash id : " + versionHashId + " for tenant id : " +
                     tenantId;
@@ -727,6 +865,40 @@ public class ApplicationManager {
 
     }
 
+    /**
+     * Method for persisting the deployment of a version along with its containers and service proxies, replacing the
+     * deployment already persisted for the version, if any, within the same transaction. The containers and the
+     * service proxies are inserted in batches.
+     *
+     * @param versionHashId version hash id
+     * @param deployment    deployment object holding the containers and their service proxies
+     * @throws AppCloudException
+     */
+    public static void persistDeploymentGraph(String versionHashId, Deployment deployment) throws AppCloudException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            ApplicationDAO applicationDAO = ApplicationDAO.getInstance();
+            applicationDAO.deleteDeployment(dbConnection, versionHashId, tenantId);
+            applicationDAO.addDeploymentForVersion(dbConnection, versionHashId, deployment, tenantId);
+            dbConnection.commit();
+        } catch (AppCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while persisting deployment for version with hash id : " + versionHashId +
+                    " for tenant id : " + tenantId;
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error while committing transaction for persisting deployment for version with hash id : " +
+                    versionHashId + " for tenant id : " + tenantId;
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
     /**
      * Method for getting deployments.
      *
@@ -761,6 +933,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().deleteDeployment(dbConnection, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while deleting deployment for version with hash id : " + versionHashId +
                     " for tenant id : " + tenantId;
@@ -783,7 +956,19 @@ public class ApplicationManager {
      * @return transports array
      * @throws AppCloudException
      */
-    public static Transport[] getTransportsForRuntime(int runtimeId) throws AppCloudException {
+    public static Transport[] getTransportsForRuntime(final int runtimeId) throws AppCloudException {
+        Transport[] cached = ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.TRANSPORTS_FOR_RUNTIME, runtimeId,
+                new Callable<Transport[]>() {
+                    @Override
+                    public Transport[] call() throws AppCloudException {
+                        return loadTransportsForRuntime(runtimeId);
+                    }
+                });
+        return cached == null ? null : cached.clone();
+    }
+
+    private static Transport[] loadTransportsForRuntime(int runtimeId) throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
@@ -807,7 +992,18 @@ public class ApplicationManager {
      * @return application runtime
      * @throws AppCloudException
      */
-    public static ApplicationRuntime getRuntimeById(int runtimeId) throws AppCloudException {
+    public static ApplicationRuntime getRuntimeById(final int runtimeId) throws AppCloudException {
+        return ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.RUNTIME, runtimeId,
+                new Callable<ApplicationRuntime>() {
+                    @Override
+                    public ApplicationRuntime call() throws AppCloudException {
+                        return loadRuntimeById(runtimeId);
+                    }
+                });
+    }
+
+    private static ApplicationRuntime loadRuntimeById(int runtimeId) throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
@@ -925,6 +1121,7 @@ public class ApplicationManager {
             boolean isUpdateSuccess = ApplicationDAO.getInstance().
                     updateCustomDomain(dbConnection, applicationHashId, customDomain, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
             return isUpdateSuccess;
         } catch (AppCloudException e) {
             String msg = "Error while updating the custom domain with application hash id : " + applicationHashId
@@ -957,6 +1154,7 @@ public class ApplicationManager {
             boolean isUpdatedSuccess = ApplicationDAO.getInstance().
                     updateDefaultVersion(dbConnection, applicationHashId, defaultVersionName, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
             return isUpdatedSuccess;
         } catch (AppCloudException e) {
             String msg = "Error while updating default version with application hash id : " + applicationHashId
@@ -1033,6 +1231,34 @@ public class ApplicationManager {
         }
     }
 
+    /**
+     * Stream the application versions in a given status of a range of tenants to a handler, ordered by tenant id.
+     * Unlike {@link #getRunningApplicationsOfAllTenants()}, at most one page of versions is held in memory at a time.
+     *
+     * @param status       status of the versions
+     * @param fromTenantId lowest tenant id, inclusive
+     * @param toTenantId   highest tenant id, inclusive
+     * @param handler      handler of the versions
+     * @return number of streamed versions
+     * @throws AppCloudException
+     */
+    public static int streamApplicationVersionsOfTenants(String status, int fromTenantId, int toTenantId,
+                                                         ApplicationVersionHandler handler) throws AppCloudException {
+        int pageSize = Util.getIntPropertyValue(APPLICATION_VERSIONS_PAGE_SIZE, DEFAULT_APPLICATION_VERSIONS_PAGE_SIZE);
+        Connection dbConnection = DBUtil.getDBConnection();
+        try {
+            return ApplicationDAO.getInstance().streamApplicationVersionsOfTenants(dbConnection, status, fromTenantId,
+                    toTenantId, pageSize, handler);
+        } catch (AppCloudException e) {
+            String msg = "Error while streaming application versions in status : " + status + " of tenants from : "
+                    + fromTenantId + " to : " + toTenantId;
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
+
     /**
      * Method for getting maximum application count for whitelisted tenant per cloud
      * @param tenantId id of tenant
@@ -1109,6 +1335,7 @@ public class ApplicationManager {
         try {
             ApplicationDAO.getInstance().whiteListApplicationVersion(dbConnection, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error whitelisting application version hash id : " + versionHashId + " for tenant id : "
                     + tenantId;
@@ -1170,6 +1397,7 @@ public class ApplicationManager {
             boolean isUpdatedSuccess = ApplicationDAO.getInstance().
                     updateContainerSpecification(dbConnection, versionHashId, memory, cpu, tenantId);
             dbConnection.commit();
+            ApplicationCache.invalidateApplications(tenantId);
             return isUpdatedSuccess;
         } catch (AppCloudException e) {
             String msg = "Error while updating container specification with application hash id : " + versionHashId
@@ -1390,6 +1618,18 @@ public class ApplicationManager {
      * @throws AppCloudException
      */
     public static String[] getCloudTypes() throws AppCloudException {
+        String[] cached = ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.CLOUD_TYPES, null,
+                new Callable<String[]>() {
+                    @Override
+                    public String[] call() throws AppCloudException {
+                        return loadCloudTypes();
+                    }
+                });
+        return cached == null ? null : cached.clone();
+    }
+
+    private static String[] loadCloudTypes() throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         try {
             List<String> cloudTypes = ApplicationDAO.getInstance().getCloudTypes(dbConnection);
@@ -1510,6 +1750,7 @@ public class ApplicationManager {
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             ApplicationDAO.getInstance().updateVersionExposureLevel(dbConnection, versionKey, tenantId, exposureLevel);
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while checking for the exposure level for application version: " + versionKey +
                     " and tenant id: " + tenantId + ".";
@@ -1576,6 +1817,7 @@ public class ApplicationManager {
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             ApplicationDAO.getInstance().updateReplicationCountForDeployment(dbConnection, versionKey, replicaCount, tenantId);
+            ApplicationCache.invalidateApplications(tenantId);
         } catch (AppCloudException e) {
             String msg = "Error while updating database for scaling deployment: " + versionKey +
                     " and tenant id: " + tenantId + ".";
@@ -1698,7 +1940,20 @@ public class ApplicationManager {
      * @return list of container specifications
      * @throws AppCloudException
      */
-    public static ContainerSpecification[] getAllowedContainerSpecificationsForRuntime(int runtimeId)
+    public static ContainerSpecification[] getAllowedContainerSpecificationsForRuntime(final int runtimeId)
+            throws AppCloudException {
+        ContainerSpecification[] cached = ApplicationCache.get(ApplicationCache.SHARED_SCOPE,
+                ApplicationCache.Region.CONTAINER_SPECIFICATIONS_FOR_RUNTIME, runtimeId,
+                new Callable<ContainerSpecification[]>() {
+                    @Override
+                    public ContainerSpecification[] call() throws AppCloudException {
+                        return loadAllowedContainerSpecificationsForRuntime(runtimeId);
+                    }
+                });
+        return cached == null ? null : cached.clone();
+    }
+
+    private static ContainerSpecification[] loadAllowedContainerSpecificationsForRuntime(int runtimeId)
             throws AppCloudException {
         Connection dbConnection = DBUtil.getDBConnection();
         try {
@@ -0,0 +1,37 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.dto.Application;
+
+/**
+ * Receives the application versions streamed by
+ * {@link ApplicationManager#streamApplicationVersionsOfTenants(String, int, int, ApplicationVersionHandler)}.
+ */
+public interface ApplicationVersionHandler {
+
+    /**
+     * Handle an application version. The version name and hash id are set as the default version and the hash id of
+     * the given application.
+     *
+     * @param tenantId    id of the tenant the version belongs to
+     * @param application application holding the details of the version
+     * @throws AppCloudException if streaming should be stopped
+     */
+    void handle(int tenantId, Application application) throws AppCloudException;
+}
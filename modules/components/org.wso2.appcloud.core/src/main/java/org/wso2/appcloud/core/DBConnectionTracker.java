@@ -0,0 +1,268 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the database connections handed out by {@link DBUtil}. Connections held longer than the leak threshold are
+ * reported once with the stack they were acquired from, and the statistics of the connections and the gauges of the
+ * underlying pool are exposed through JMX.
+ */
+public class DBConnectionTracker implements DBConnectionTrackerMXBean {
+
+    private static final Log log = LogFactory.getLog(DBConnectionTracker.class);
+
+    private static final long MIN_LEAK_CHECK_INTERVAL = 1000;
+
+    private final DataSource dataSource;
+    private final long leakThreshold;
+    private final Set<TrackedConnection> openConnections =
+            Collections.newSetFromMap(new ConcurrentHashMap<TrackedConnection, Boolean>());
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong releasedCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+    private final AtomicLong totalHoldTime = new AtomicLong();
+    private final AtomicLong maxHoldTime = new AtomicLong();
+    private final AtomicLong totalStatementCount = new AtomicLong();
+    private final AtomicLong leakedStatementCount = new AtomicLong();
+    private final ScheduledExecutorService leakDetector;
+
+    /**
+     * @param dataSource    data source the connections are acquired from
+     * @param leakThreshold time in milliseconds after which a connection which is not closed is reported as leaked
+     */
+    public DBConnectionTracker(DataSource dataSource, long leakThreshold) {
+        this.dataSource = dataSource;
+        this.leakThreshold = leakThreshold;
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "appcloud-db-connection-leak-detector");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long interval = Math.max(leakThreshold / 2, MIN_LEAK_CHECK_INTERVAL);
+        leakDetector.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reportLeaks();
+                } catch (RuntimeException e) {
+                    log.error("Error while checking for leaked database connections", e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wrap a connection acquired from the data source so that it is tracked until it is closed.
+     *
+     * @param connection connection acquired from the data source
+     * @param waitTime   time in milliseconds spent acquiring the connection
+     * @return tracked connection
+     */
+    public Connection track(Connection connection, long waitTime) {
+        totalWaitTime.addAndGet(waitTime);
+        updateMax(maxWaitTime, waitTime);
+        return TrackedConnection.wrap(connection, this);
+    }
+
+    /**
+     * Stop the leak detection.
+     */
+    public void shutdown() {
+        leakDetector.shutdownNow();
+    }
+
+    void acquired(TrackedConnection connection) {
+        acquiredCount.incrementAndGet();
+        openConnections.add(connection);
+    }
+
+    void released(TrackedConnection connection, long holdTime, int statements, int leakedStatements) {
+        openConnections.remove(connection);
+        releasedCount.incrementAndGet();
+        totalHoldTime.addAndGet(holdTime);
+        updateMax(maxHoldTime, holdTime);
+        totalStatementCount.addAndGet(statements);
+        leakedStatementCount.addAndGet(leakedStatements);
+        if (connection.isLeakReported()) {
+            log.info("Database connection reported as leaked was closed after " + holdTime + " ms");
+        }
+    }
+
+    private void reportLeaks() {
+        for (TrackedConnection connection : openConnections) {
+            if (!connection.isLeakReported() && connection.getHoldTime() > leakThreshold) {
+                connection.setLeakReported();
+                log.warn("Possible database connection leak. " + connection.describe());
+            }
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    @Override
+    public int getOpenConnectionCount() {
+        return openConnections.size();
+    }
+
+    @Override
+    public long getAcquiredConnectionCount() {
+        return acquiredCount.get();
+    }
+
+    @Override
+    public double getMeanAcquisitionWaitTime() {
+        long count = acquiredCount.get();
+        return count == 0 ? 0 : (double) totalWaitTime.get() / count;
+    }
+
+    @Override
+    public long getMaxAcquisitionWaitTime() {
+        return maxWaitTime.get();
+    }
+
+    @Override
+    public double getMeanHoldTime() {
+        long count = releasedCount.get();
+        return count == 0 ? 0 : (double) totalHoldTime.get() / count;
+    }
+
+    @Override
+    public long getMaxHoldTime() {
+        return maxHoldTime.get();
+    }
+
+    @Override
+    public double getMeanStatementCount() {
+        long count = releasedCount.get();
+        return count == 0 ? 0 : (double) totalStatementCount.get() / count;
+    }
+
+    @Override
+    public long getLeakedStatementCount() {
+        return leakedStatementCount.get();
+    }
+
+    @Override
+    public int getLongHeldConnectionCount() {
+        int count = 0;
+        for (TrackedConnection connection : openConnections) {
+            if (connection.getHoldTime() > leakThreshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String[] getLongHeldConnections() {
+        List<String> connections = new ArrayList<>();
+        for (TrackedConnection connection : openConnections) {
+            if (connection.getHoldTime() > leakThreshold) {
+                connections.add(connection.describe());
+            }
+        }
+        return connections.toArray(new String[connections.size()]);
+    }
+
+    @Override
+    public long getLeakThreshold() {
+        return leakThreshold;
+    }
+
+    @Override
+    public int getPoolActiveCount() {
+        return getPoolGauge("getActive");
+    }
+
+    @Override
+    public int getPoolIdleCount() {
+        return getPoolGauge("getIdle");
+    }
+
+    @Override
+    public int getPoolSize() {
+        return getPoolGauge("getSize");
+    }
+
+    @Override
+    public int getPoolMaxActive() {
+        return getPoolGauge("getMaxActive");
+    }
+
+    @Override
+    public int getPoolWaitCount() {
+        return getPoolGauge("getWaitCount");
+    }
+
+    @Override
+    public void resetStatistics() {
+        acquiredCount.set(0);
+        releasedCount.set(0);
+        totalWaitTime.set(0);
+        maxWaitTime.set(0);
+        totalHoldTime.set(0);
+        maxHoldTime.set(0);
+        totalStatementCount.set(0);
+        leakedStatementCount.set(0);
+    }
+
+    /**
+     * Read a gauge of the connection pool. The data source is looked up through JNDI, hence the pool implementation
+     * (tomcat jdbc pool in carbon) is accessed reflectively.
+     */
+    private int getPoolGauge(String methodName) {
+        try {
+            Method method = dataSource.getClass().getMethod(methodName);
+            Object value = method.invoke(dataSource);
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            }
+        } catch (ReflectiveOperationException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Connection pool gauge : " + methodName + " is not available for data source : "
+                        + dataSource.getClass().getName());
+            }
+        }
+        return -1;
+    }
+}
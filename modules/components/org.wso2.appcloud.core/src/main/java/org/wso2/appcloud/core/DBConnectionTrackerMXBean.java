@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+/**
+ * JMX view of the database connections handed out by {@link DBUtil}. Times are in milliseconds. The pool gauges are
+ * read from the underlying connection pool and are -1 if the pool does not expose them.
+ */
+public interface DBConnectionTrackerMXBean {
+
+    /**
+     * @return number of connections handed out and not closed yet
+     */
+    int getOpenConnectionCount();
+
+    long getAcquiredConnectionCount();
+
+    double getMeanAcquisitionWaitTime();
+
+    long getMaxAcquisitionWaitTime();
+
+    double getMeanHoldTime();
+
+    long getMaxHoldTime();
+
+    double getMeanStatementCount();
+
+    /**
+     * @return number of statements which were still open when their connection was closed
+     */
+    long getLeakedStatementCount();
+
+    /**
+     * @return number of open connections held longer than the leak threshold
+     */
+    int getLongHeldConnectionCount();
+
+    /**
+     * @return details of the open connections held longer than the leak threshold, with their acquisition stacks
+     */
+    String[] getLongHeldConnections();
+
+    long getLeakThreshold();
+
+    int getPoolActiveCount();
+
+    int getPoolIdleCount();
+
+    int getPoolSize();
+
+    int getPoolMaxActive();
+
+    /**
+     * @return number of threads waiting for a connection from the pool
+     */
+    int getPoolWaitCount();
+
+    /**
+     * Reset the statistics of the closed connections.
+     */
+    void resetStatistics();
+}
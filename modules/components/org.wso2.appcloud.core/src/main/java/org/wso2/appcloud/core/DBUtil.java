@@ -24,9 +24,13 @@ import org.wso2.appcloud.common.util.AppCloudUtil;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -37,7 +41,18 @@ public class DBUtil {
     private static Log log = LogFactory.getLog(DBUtil.class);
 
     private static DataSource dataSource;
+    private static DBConnectionTracker connectionTracker;
     private static final String DATASOURCE_NAME = "DataSourceName";
+    private static final String CONNECTION_TRACKING_ENABLED = "Database.ConnectionTracking.Enabled";
+    private static final String CONNECTION_LEAK_THRESHOLD = "Database.ConnectionLeakThreshold";
+    private static final int DEFAULT_CONNECTION_LEAK_THRESHOLD = 60000;
+    private static final String CONNECTION_TRACKER_MBEAN_NAME = "org.wso2.appcloud:type=DatabaseConnections";
+    private static final String STATEMENT_CACHE_ENABLED = "Database.StatementCache.Enabled";
+    private static final String STATEMENT_CACHE_MAX_STATEMENTS = "Database.StatementCache.MaxStatements";
+    private static final int DEFAULT_STATEMENT_CACHE_MAX_STATEMENTS = 32;
+    private static final boolean statementCacheEnabled = Util.getBooleanPropertyValue(STATEMENT_CACHE_ENABLED, true);
+    private static final int statementCacheMaxStatements = Util.getIntPropertyValue(STATEMENT_CACHE_MAX_STATEMENTS,
+            DEFAULT_STATEMENT_CACHE_MAX_STATEMENTS);
 
     public static void initDatasource() {
 
@@ -52,6 +67,9 @@ public class DBUtil {
                 if(log.isDebugEnabled()){
                     log.debug("Initialized datasource : " + datasourceName + " successfully");
                 }
+                if (Util.getBooleanPropertyValue(CONNECTION_TRACKING_ENABLED, true)) {
+                    initConnectionTracker();
+                }
             } catch (NamingException e) {
                 log.error("Error while initializing datasource : " + DATASOURCE_NAME, e);
                 throw new ExceptionInInitializerError(e);
@@ -67,7 +85,15 @@ public class DBUtil {
         Connection connection;
         try {
 
+            long startTime = System.currentTimeMillis();
             connection = getDataSource().getConnection();
+            if (statementCacheEnabled) {
+                connection = StatementCachingConnection.wrap(connection, statementCacheMaxStatements);
+            }
+            DBConnectionTracker tracker = connectionTracker;
+            if (tracker != null) {
+                connection = tracker.track(connection, System.currentTimeMillis() - startTime);
+            }
             connection.setAutoCommit(false);
 
         } catch (SQLException e) {
@@ -78,6 +104,44 @@ public class DBUtil {
         return connection;
     }
 
+    private static synchronized void initConnectionTracker() {
+        if (connectionTracker != null) {
+            return;
+        }
+        connectionTracker = new DBConnectionTracker(dataSource,
+                Util.getIntPropertyValue(CONNECTION_LEAK_THRESHOLD, DEFAULT_CONNECTION_LEAK_THRESHOLD));
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CONNECTION_TRACKER_MBEAN_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(connectionTracker, objectName);
+            }
+        } catch (JMException e) {
+            // connections are still tracked and leaks are logged, they are only not visible through JMX
+            log.warn("Could not register database connection tracker : " + CONNECTION_TRACKER_MBEAN_NAME, e);
+        }
+    }
+
+    /**
+     * Stop tracking the database connections and unregister the connection tracker from the MBean server.
+     */
+    public static synchronized void shutdownConnectionTracker() {
+        if (connectionTracker == null) {
+            return;
+        }
+        connectionTracker.shutdown();
+        connectionTracker = null;
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CONNECTION_TRACKER_MBEAN_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Could not unregister database connection tracker : " + CONNECTION_TRACKER_MBEAN_NAME, e);
+        }
+    }
+
     private static DataSource getDataSource() {
         if(dataSource == null){
             initDatasource();
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically compacts the application creation events, so that the events of long lived application versions do
+ * not accumulate with every deployment. The latest event of each name is kept for every version, along with all the
+ * events within a configurable history window. Compaction is disabled by default and should be enabled on a single
+ * node of the cluster only, since the nodes share the same database.
+ */
+public class EventCompactionScheduler {
+
+    private static final Log log = LogFactory.getLog(EventCompactionScheduler.class);
+
+    public static final String PROPERTY_ENABLED = "EventCompaction.Enabled";
+    public static final String PROPERTY_INTERVAL = "EventCompaction.Interval";
+    public static final String PROPERTY_HISTORY_WINDOW = "EventCompaction.HistoryWindow";
+    public static final String PROPERTY_BATCH_SIZE = "EventCompaction.BatchSize";
+    private static final int DEFAULT_INTERVAL = 3600000;
+    private static final int DEFAULT_HISTORY_WINDOW = 86400000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static ScheduledExecutorService scheduler;
+
+    private EventCompactionScheduler() {
+    }
+
+    /**
+     * Start compacting events periodically, unless compaction is disabled or already started.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || !Util.getBooleanPropertyValue(PROPERTY_ENABLED, false)) {
+            return;
+        }
+        int interval = Util.getIntPropertyValue(PROPERTY_INTERVAL, DEFAULT_INTERVAL);
+        final int historyWindow = Util.getIntPropertyValue(PROPERTY_HISTORY_WINDOW, DEFAULT_HISTORY_WINDOW);
+        final int batchSize = Util.getIntPropertyValue(PROPERTY_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "appcloud-event-compaction-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                compact(historyWindow, batchSize);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Scheduled event compaction every " + interval + " milliseconds with history window : "
+                    + historyWindow + " milliseconds and batch size : " + batchSize);
+        }
+    }
+
+    /**
+     * Stop compacting events. A compaction in progress stops after its current batch.
+     */
+    public static synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static void compact(int historyWindow, int batchSize) {
+        long startTime = System.currentTimeMillis();
+        try {
+            int deletedCount = new EventsManager().compactEvents(historyWindow, batchSize);
+            if (deletedCount > 0) {
+                log.info("Compacted " + deletedCount + " application creation events in "
+                        + (System.currentTimeMillis() - startTime) + " milliseconds");
+            }
+        } catch (AppCloudException e) {
+            // already logged, the remaining events are compacted by the next run
+        } catch (RuntimeException e) {
+            // a task throwing an exception is not run again by the scheduler
+            log.error("Error occurred while compacting application creation events", e);
+        }
+    }
+}
@@ -21,11 +21,15 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.appcloud.common.AppCloudException;
 import org.wso2.appcloud.core.dao.EventsDAO;
 import org.wso2.appcloud.core.dto.Event;
+import org.wso2.appcloud.core.dto.EventSnapshot;
 import org.wso2.carbon.context.CarbonContext;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * This class provide the interface for accessing the dao layer.
@@ -47,6 +51,7 @@ public class EventsManager {
         try {
             EventsDAO.getInstance().addAppCreationEvent(dbConnection, versionHashId, event, tenantId);
             dbConnection.commit();
+            ApplicationEventBus.getInstance().publish(versionHashId, event);
         } catch (AppCloudException e) {
             String msg = "Error occured while adding application creation event for event with name : "
                     + event.getEventName() + ", status: " + event.getEventStatus() + ", timestamp : " +
@@ -87,6 +92,30 @@ public class EventsManager {
         }
     }
 
+    /**
+     * Wait for the application creation events of a version to change. The events are read from the database only if
+     * the version is not watched yet, or if no event was published on this node within the wait timeout.
+     *
+     * @param versionHashId version hash id
+     * @param sequence      sequence number of the last snapshot received by the client, or -1 if none
+     * @return latest event of each name along with the sequence number of the snapshot
+     * @throws AppCloudException
+     */
+    public EventSnapshot waitForEventsOfApplication(final String versionHashId, long sequence)
+            throws AppCloudException {
+        ApplicationEventBus eventBus = ApplicationEventBus.getInstance();
+        EventSnapshot snapshot = eventBus.awaitEvents(versionHashId, sequence);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return eventBus.catchUp(versionHashId, new Callable<List<Event>>() {
+            @Override
+            public List<Event> call() throws AppCloudException {
+                return Arrays.asList(getEventsOfApplication(versionHashId));
+            }
+        });
+    }
+
     /**
      * Delete all events related to a particluar version.
      *
@@ -99,6 +128,7 @@ public class EventsManager {
         try {
             EventsDAO.getInstance().deleteAppVersionEvents(dbConnection, versionHashId, tenantId);
             dbConnection.commit();
+            ApplicationEventBus.getInstance().clear(versionHashId);
         } catch (AppCloudException e) {
             String msg = "Error occurred while deleting all the events for the application version hash id : "
                     + versionHashId + " in tenant : " + tenantId;
@@ -113,4 +143,49 @@ public class EventsManager {
             DBUtil.closeConnection(dbConnection);
         }
     }
+
+    /**
+     * Compact the events of all the tenants. Events older than the history window are deleted unless they are the
+     * latest event of their name for the application version. Events are deleted in batches, each in its own
+     * transaction, so that the table is not locked for long. Compaction stops after the current batch if the calling
+     * thread is interrupted.
+     *
+     * @param historyWindow time in milliseconds for which all the events are kept
+     * @param batchSize     maximum number of events deleted in a single transaction
+     * @return number of deleted events
+     * @throws AppCloudException
+     */
+    public int compactEvents(long historyWindow, int batchSize) throws AppCloudException {
+        Timestamp olderThan = new Timestamp(System.currentTimeMillis() - historyWindow);
+        Connection dbConnection = DBUtil.getDBConnection();
+        int lastEventId = 0;
+        int deletedCount = 0;
+        try {
+            List<Integer> eventIds;
+            do {
+                eventIds = EventsDAO.getInstance().getCompactableEventIds(dbConnection, lastEventId, olderThan,
+                        batchSize);
+                if (!eventIds.isEmpty()) {
+                    deletedCount += EventsDAO.getInstance().deleteEvents(dbConnection, eventIds);
+                    dbConnection.commit();
+                    lastEventId = eventIds.get(eventIds.size() - 1);
+                }
+            } while (eventIds.size() == batchSize && !Thread.currentThread().isInterrupted());
+            return deletedCount;
+        } catch (AppCloudException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error occurred while compacting events older than : " + olderThan + " after deleting "
+                    + deletedCount + " events";
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } catch (SQLException e) {
+            DBUtil.rollbackTransaction(dbConnection);
+            String msg = "Error occurred while committing transaction for compacting events older than : " + olderThan
+                    + " after deleting " + deletedCount + " events";
+            log.error(msg, e);
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeConnection(dbConnection);
+        }
+    }
 }
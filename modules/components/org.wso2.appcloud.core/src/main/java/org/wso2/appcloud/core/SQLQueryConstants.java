@@ -28,6 +28,8 @@ public class SQLQueryConstants {
     public static final String NAME = "name";
     public static final String VALUE = "value";
     public static final String IS_SECURED = "is_secured";
+    public static final String VERSION_ID = "version_id";
+    public static final String PROPERTY_TYPE = "property_type";
     public static final String REPLICAS = "replicas";
     public static final String VERSION = "version";
     public static final String PROTOCOL = "protocol";
@@ -174,6 +176,16 @@ public class SQLQueryConstants {
             "AC_RUNTIME runtime ON version.runtime_id = runtime.id WHERE version.application_id = (SELECT id FROM " +
             "AC_APPLICATION WHERE hash_id=? AND tenant_id=?)";
 
+    public static final String PROPERTY_TYPE_TAG = "tag";
+
+    public static final String GET_ALL_TAGS_AND_RUNTIME_PROPERTIES_OF_APPLICATION =
+            "SELECT 'runtime_property' as property_type, property.version_id, property.name, property.value, " +
+            "property.description, property.is_secured FROM AC_RUNTIME_PROPERTY property JOIN AC_VERSION version ON " +
+            "property.version_id = version.id WHERE version.application_id = (SELECT id FROM AC_APPLICATION WHERE " +
+            "hash_id=? AND tenant_id=?) UNION ALL SELECT 'tag' as property_type, tag.version_id, tag.name, tag.value, " +
+            "tag.description, NULL as is_secured FROM AC_TAG tag JOIN AC_VERSION version ON tag.version_id = " +
+            "version.id WHERE version.application_id = (SELECT id FROM AC_APPLICATION WHERE hash_id=? AND tenant_id=?)";
+
     public static final String GET_APPLICATION_NAME_BY_HASH_ID =
             "SELECT name FROM AC_APPLICATION WHERE hash_id = ? AND tenant_id=?";
 
@@ -210,9 +222,12 @@ public class SQLQueryConstants {
     public static final String GET_RUNTIME_BY_ID =
             "SELECT * FROM AC_RUNTIME WHERE id = ?";
 
+    /* Latest event of each name of a version. The latest event ids are resolved from the (version_id, name, id)
+    index of AC_EVENT with one lookup per event name, instead of a correlated subquery per event of the version. */
     public static final String GET_ALL_EVENTS_OF_APPLICATION =
-            "select * from AC_EVENT A where A.version_id = (SELECT id FROM AC_VERSION WHERE hash_id=? AND tenant_id=?) and A.id >= " +
-            "(select MAX(B.id) from AC_EVENT B where B.version_id = A.version_id and B.name = A.name)";
+            "SELECT A.* FROM AC_EVENT A INNER JOIN (SELECT MAX(B.id) AS id FROM AC_EVENT B WHERE B.version_id = " +
+            "(SELECT id FROM AC_VERSION WHERE hash_id=? AND tenant_id=?) GROUP BY B.name) LATEST ON A.id = LATEST.id " +
+            "ORDER BY A.id";
 
     public static final String GET_DEPLOYMENT =
             "SELECT * from AC_DEPLOYMENT where id=(SELECT deployment_id from AC_VERSION WHERE hash_id=? AND tenant_id=?)";
@@ -295,6 +310,16 @@ public class SQLQueryConstants {
                     "JOIN AC_APPLICATION ON AC_VERSION.application_id=AC_APPLICATION.id INNER JOIN AC_APP_TYPE " +
                     "ON AC_APPLICATION.app_type_id = AC_APP_TYPE.id WHERE AC_VERSION.status='running';";
 
+    public static final String GET_APPLICATION_VERSIONS_OF_TENANTS_PAGE =
+            "SELECT AC_VERSION.id AS VERSION_ID, AC_VERSION.name AS VERSION_NAME, AC_VERSION.hash_id AS " +
+                    "VERSION_HASH_ID, AC_VERSION.tenant_id, AC_VERSION.con_spec_cpu AS CONTAINER_CPU, " +
+                    "AC_VERSION.con_spec_memory AS CONTAINER_MEM, AC_APPLICATION.name AS APPLICATION_NAME, " +
+                    "AC_APP_TYPE.name AS APP_TYPE_NAME FROM AC_VERSION INNER JOIN AC_APPLICATION ON " +
+                    "AC_VERSION.application_id=AC_APPLICATION.id INNER JOIN AC_APP_TYPE ON " +
+                    "AC_APPLICATION.app_type_id = AC_APP_TYPE.id WHERE AC_VERSION.status=? AND " +
+                    "AC_VERSION.tenant_id <= ? AND (AC_VERSION.tenant_id > ? OR (AC_VERSION.tenant_id = ? AND " +
+                    "AC_VERSION.id > ?)) ORDER BY AC_VERSION.tenant_id, AC_VERSION.id LIMIT ?";
+
     public static final String GET_RUNNING_APPLICATIONS_OF_A_TENANT =
             "SELECT AC_VERSION.name as VERSION_NAME, AC_VERSION.hash_id as VERSION_HASH_ID, AC_VERSION.tenant_id, " +
                     "AC_VERSION.con_spec_cpu as CONTAINER_CPU,AC_VERSION.con_spec_memory as CONTAINER_MEM," +
@@ -376,6 +401,26 @@ public class SQLQueryConstants {
     public static final String DELETE_ALL_APP_VERSION_EVENTS =
             "Delete from AC_EVENT where version_id = (SELECT id FROM AC_VERSION WHERE hash_id=? AND tenant_id=?)";
 
+    /* Event compaction queries. An event is compactable if it is older than the history window and a later event
+    with the same name exists for the version, hence the latest event of each name is always kept. */
+    public static final String GET_COMPACTABLE_EVENT_IDS =
+            "SELECT A.id FROM AC_EVENT A WHERE A.id > ? AND A.timestamp < ? AND EXISTS (SELECT 1 FROM AC_EVENT B " +
+            "WHERE B.version_id = A.version_id AND B.name = A.name AND B.id > A.id) ORDER BY A.id LIMIT ?";
+
+    /* The id list placeholder is replaced with one parameter marker per event of the batch */
+    public static final String DELETE_EVENTS = "DELETE FROM AC_EVENT WHERE id IN (%s)";
+
+    /* Bulk tenant deletion queries, each deleting at most the given number of rows */
+
+    public static final String DELETE_DEPLOYMENTS_OF_TENANT = "DELETE FROM AC_DEPLOYMENT WHERE tenant_id=? LIMIT ?";
+
+    public static final String DELETE_EVENTS_OF_TENANT = "DELETE FROM AC_EVENT WHERE tenant_id=? LIMIT ?";
+
+    public static final String DELETE_APPLICATION_CONTEXTS_OF_TENANT =
+            "DELETE FROM AC_APPLICAION_CONTEXTS WHERE tenant_id=? LIMIT ?";
+
+    public static final String DELETE_APPLICATIONS_OF_TENANT = "DELETE FROM AC_APPLICATION WHERE tenant_id=? LIMIT ?";
+
     public static final String RUNNING_APPLICATION_VERSION_COUNT = "SELECT COUNT(id) AS ACTIVE_CONTAINERS_COUNT FROM " +
             "AC_VERSION WHERE application_id IN (SELECT id FROM AC_APPLICATION WHERE tenant_id = ? AND " +
             "cloud_id = ?) AND status='running'";
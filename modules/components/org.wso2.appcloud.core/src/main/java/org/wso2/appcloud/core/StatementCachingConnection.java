@@ -0,0 +1,221 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection wrapper which reuses prepared statements for the lifetime of the connection. A connection obtained from
+ * {@link DBUtil#getDBConnection()} is used for a single unit of work, so SQL executed repeatedly within the unit of
+ * work, e.g. adding the containers and service proxies of a deployment, is prepared only once.
+ * <p>
+ * Closing a statement returned by this connection only marks it as available for reuse after clearing its
+ * parameters and batch, and the statements are really closed along with the connection. A statement whose SQL is
+ * still in use, e.g. in a nested query, is prepared without being cached.
+ */
+final class StatementCachingConnection implements InvocationHandler {
+
+    private static final Log log = LogFactory.getLog(StatementCachingConnection.class);
+
+    private final Connection connection;
+    private final int maxStatements;
+    private final Map<List<Object>, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private int preparedCount;
+    private int reusedCount;
+
+    private StatementCachingConnection(Connection connection, int maxStatements) {
+        this.connection = connection;
+        this.maxStatements = maxStatements;
+    }
+
+    static Connection wrap(Connection connection, int maxStatements) {
+        return (Connection) Proxy.newProxyInstance(StatementCachingConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new StatementCachingConnection(connection, maxStatements));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        if ("prepareStatement".equals(methodName) && isCacheable(args)) {
+            return prepareStatement(args);
+        } else if ("close".equals(methodName) && args == null) {
+            close();
+            return null;
+        } else if ("equals".equals(methodName) && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(methodName) && args == null) {
+            return System.identityHashCode(proxy);
+        } else if ("toString".equals(methodName) && args == null) {
+            return "StatementCachingConnection[" + connection + "]";
+        }
+
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Statements prepared with the SQL only, or with the SQL and the generated key, result set type or result set
+     * concurrency options are cached.
+     */
+    private static boolean isCacheable(Object[] args) {
+        if (args == null || args.length == 0 || args.length > 3 || !(args[0] instanceof String)) {
+            return false;
+        }
+        for (int i = 1; i < args.length; i++) {
+            if (!(args[i] instanceof Integer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PreparedStatement prepareStatement(Object[] args) throws SQLException {
+        List<Object> key = Arrays.asList(args);
+        CachedStatement cachedStatement = statements.get(key);
+        if (cachedStatement != null) {
+            if (!cachedStatement.inUse && !cachedStatement.statement.isClosed()) {
+                cachedStatement.inUse = true;
+                reusedCount++;
+                return cachedStatement.proxy;
+            }
+            if (cachedStatement.inUse) {
+                // the same SQL is still in use, hence this statement is not cached
+                return prepare(args);
+            }
+            statements.remove(key);
+        }
+
+        PreparedStatement statement = prepare(args);
+        if (statements.size() >= maxStatements && !evictStatement()) {
+            return statement;
+        }
+        cachedStatement = new CachedStatement(statement);
+        statements.put(key, cachedStatement);
+        return cachedStatement.proxy;
+    }
+
+    private PreparedStatement prepare(Object[] args) throws SQLException {
+        preparedCount++;
+        String sql = (String) args[0];
+        switch (args.length) {
+            case 2:
+                return connection.prepareStatement(sql, (Integer) args[1]);
+            case 3:
+                return connection.prepareStatement(sql, (Integer) args[1], (Integer) args[2]);
+            default:
+                return connection.prepareStatement(sql);
+        }
+    }
+
+    /**
+     * Close the least recently used statement which is not in use.
+     *
+     * @return false if all the cached statements are in use
+     */
+    private boolean evictStatement() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            CachedStatement cachedStatement = iterator.next();
+            if (!cachedStatement.inUse) {
+                iterator.remove();
+                DBUtil.closePreparedStatement(cachedStatement.statement);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void close() throws SQLException {
+        for (CachedStatement cachedStatement : statements.values()) {
+            DBUtil.closePreparedStatement(cachedStatement.statement);
+        }
+        statements.clear();
+        if (log.isDebugEnabled() && reusedCount > 0) {
+            log.debug("Reused prepared statements " + reusedCount + " times, prepared " + preparedCount
+                    + " statements on database connection");
+        }
+        connection.close();
+    }
+
+    /**
+     * Prepared statement which is released for reuse instead of being closed.
+     */
+    private static final class CachedStatement implements InvocationHandler {
+
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse = true;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(CachedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if ("close".equals(methodName) && args == null) {
+                release();
+                return null;
+            } else if ("isClosed".equals(methodName) && args == null) {
+                return !inUse || statement.isClosed();
+            } else if ("equals".equals(methodName) && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                // the statement can not be reused, hence close it and let it be prepared again
+                statement.close();
+            }
+        }
+    }
+}
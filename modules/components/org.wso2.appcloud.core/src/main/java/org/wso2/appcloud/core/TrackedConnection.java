@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Connection wrapper which records where and when the connection was acquired and the statements created from it.
+ * Statements left open are closed along with the connection, which also closes their result sets.
+ */
+final class TrackedConnection implements InvocationHandler {
+
+    private static final Log log = LogFactory.getLog(TrackedConnection.class);
+
+    private static final int STATEMENT_PRUNE_THRESHOLD = 32;
+
+    private final Connection connection;
+    private final DBConnectionTracker tracker;
+    private final Throwable acquisitionTrace;
+    private final String threadName;
+    private final long acquiredTime;
+    private final List<Statement> openStatements = new ArrayList<>();
+    private int statementCount;
+    private volatile boolean closed;
+    private volatile boolean leakReported;
+
+    private TrackedConnection(Connection connection, DBConnectionTracker tracker) {
+        this.connection = connection;
+        this.tracker = tracker;
+        this.acquisitionTrace = new Throwable("Connection acquired here");
+        this.threadName = Thread.currentThread().getName();
+        this.acquiredTime = System.currentTimeMillis();
+    }
+
+    static Connection wrap(Connection connection, DBConnectionTracker tracker) {
+        TrackedConnection trackedConnection = new TrackedConnection(connection, tracker);
+        tracker.acquired(trackedConnection);
+        return (Connection) Proxy.newProxyInstance(TrackedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, trackedConnection);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        if ("close".equals(methodName) && args == null) {
+            close();
+            return null;
+        } else if ("equals".equals(methodName) && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(methodName) && args == null) {
+            return System.identityHashCode(proxy);
+        } else if ("toString".equals(methodName) && args == null) {
+            return "TrackedConnection[" + connection + "]";
+        }
+
+        Object result;
+        try {
+            result = method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (result instanceof Statement) {
+            addStatement((Statement) result);
+        }
+        return result;
+    }
+
+    long getAcquiredTime() {
+        return acquiredTime;
+    }
+
+    long getHoldTime() {
+        return System.currentTimeMillis() - acquiredTime;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported() {
+        leakReported = true;
+    }
+
+    /**
+     * @return description of the connection with the thread and the stack it was acquired from
+     */
+    String describe() {
+        StringWriter stackTrace = new StringWriter();
+        acquisitionTrace.printStackTrace(new PrintWriter(stackTrace));
+        int statements;
+        synchronized (openStatements) {
+            statements = statementCount;
+        }
+        return "Connection held for " + getHoldTime() + " ms by thread : " + threadName + " with " + statements
+                + " statements, " + stackTrace;
+    }
+
+    private void addStatement(Statement statement) throws SQLException {
+        synchronized (openStatements) {
+            statementCount++;
+            if (openStatements.size() >= STATEMENT_PRUNE_THRESHOLD) {
+                Iterator<Statement> iterator = openStatements.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isClosed()) {
+                        iterator.remove();
+                    }
+                }
+            }
+            openStatements.add(statement);
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int leakedStatements = 0;
+        int statements;
+        synchronized (openStatements) {
+            statements = statementCount;
+            for (Statement statement : openStatements) {
+                try {
+                    if (!statement.isClosed()) {
+                        leakedStatements++;
+                        statement.close();
+                    }
+                } catch (SQLException e) {
+                    log.warn("Error while closing statement left open on database connection", e);
+                }
+            }
+            openStatements.clear();
+        }
+        if (leakedStatements > 0 && log.isDebugEnabled()) {
+            log.debug("Closed " + leakedStatements + " statements left open on database connection acquired at : ",
+                    acquisitionTrace);
+        }
+        try {
+            connection.close();
+        } finally {
+            tracker.released(this, getHoldTime(), statements, leakedStatements);
+        }
+    }
+}
@@ -18,9 +18,14 @@
  */
 package org.wso2.appcloud.core;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.util.AppCloudUtil;
 
 public class Util {
 
+    private static final Log log = LogFactory.getLog(Util.class);
+
     private static final long[] byteTable = createLookupTable();
     private static final long HSTART = 0xBB40E64DA205B064L;
     private static final long HMULT = 7664345821815920749L;
@@ -77,4 +82,40 @@ public class Util {
         String idString = tenantId + applicationName;
         return Long.toString(Util.hash(idString));
     }
+
+    /**
+     * Method for reading an integer property from the app cloud configuration.
+     *
+     * @param propertyName name of the property
+     * @param defaultValue value returned when the property is not set or is invalid
+     * @return value of the property
+     */
+    public static int getIntPropertyValue(String propertyName, int defaultValue) {
+        String value = AppCloudUtil.getPropertyValue(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value : " + value + " for property : " + propertyName + ", hence using default value : "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Method for reading a boolean property from the app cloud configuration.
+     *
+     * @param propertyName name of the property
+     * @param defaultValue value returned when the property is not set
+     * @return value of the property
+     */
+    public static boolean getBooleanPropertyValue(String propertyName, boolean defaultValue) {
+        String value = AppCloudUtil.getPropertyValue(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
 }
@@ -19,6 +19,7 @@ package org.wso2.appcloud.core.dao;
 import com.google.common.base.Strings;
 import org.apache.commons.io.IOUtils;
 import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.ApplicationVersionHandler;
 import org.wso2.appcloud.core.DBUtil;
 import org.wso2.appcloud.core.SQLQueryConstants;
 import org.wso2.appcloud.core.dto.Application;
@@ -42,6 +43,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -361,10 +363,6 @@ public class ApplicationDAO {
                 deploymentId = resultSet.getInt(1);
             }
 
-            for (Container container : deployment.getContainers()) {
-                addContainer(dbConnection, container, deploymentId, tenantId);
-            }
-
         } catch (SQLException e) {
             String msg = "Error while inserting deployment record in tenant : " + tenantId;
             throw new AppCloudException(msg, e);
@@ -375,6 +373,9 @@ public class ApplicationDAO {
         if (deploymentId == -1) {
             throw new AppCloudException("Failed to insert deployment record in tenant : " + tenantId);
         }
+        if (deployment.getContainers() != null) {
+            addContainers(dbConnection, deployment.getContainers(), deploymentId, tenantId);
+        }
         return deploymentId;
     }
 
@@ -389,30 +390,94 @@ public class ApplicationDAO {
      */
     public void addContainer(Connection dbConnection, Container container, int deploymentId, int tenantId)
             throws AppCloudException {
+        addContainers(dbConnection, Collections.singletonList(container), deploymentId, tenantId);
+    }
 
+    /**
+     * Method for adding the containers of a deployment along with their service proxies. The containers are inserted
+     * in a single batch, followed by a single batch of the service proxies of all the containers.
+     *
+     * @param dbConnection database connection
+     * @param containers   container objects
+     * @param deploymentId id of deployment
+     * @param tenantId     id of tenant
+     * @throws AppCloudException
+     */
+    public void addContainers(Connection dbConnection, Collection<Container> containers, int deploymentId,
+                              int tenantId) throws AppCloudException {
+        if (containers.isEmpty()) {
+            return;
+        }
+        List<Container> containerList = new ArrayList<>(containers);
+        List<Integer> containerIds = new ArrayList<>(containerList.size());
         PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
 
         try {
-            int containerId = -1;
             preparedStatement = dbConnection.
                     prepareStatement(SQLQueryConstants.ADD_CONTAINER, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, container.getImageName());
-            preparedStatement.setString(2, container.getImageVersion());
-            preparedStatement.setInt(3, deploymentId);
-            preparedStatement.setInt(4, tenantId);
+            for (Container container : containerList) {
+                preparedStatement.setString(1, container.getImageName());
+                preparedStatement.setString(2, container.getImageVersion());
+                preparedStatement.setInt(3, deploymentId);
+                preparedStatement.setInt(4, tenantId);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
 
-            preparedStatement.execute();
+            resultSet = preparedStatement.getGeneratedKeys();
+            while (resultSet.next()) {
+                containerIds.add(resultSet.getInt(1));
+            }
+        } catch (SQLException e) {
+            String msg = "Error while inserting deployment container records in tenant : " + tenantId;
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        if (containerIds.size() != containerList.size()) {
+            throw new AppCloudException("Failed to get the ids of the inserted deployment container records, expected "
+                    + containerList.size() + " but got " + containerIds.size() + " in tenant : " + tenantId);
+        }
 
-            ResultSet resultSet = preparedStatement.getGeneratedKeys();
-            if (resultSet.next()) {
-                containerId = resultSet.getInt(1);
+        addContainerServiceProxies(dbConnection, containerList, containerIds, tenantId);
+    }
+
+    /**
+     * Method for adding the service proxies of containers in a single batch.
+     *
+     * @param dbConnection database connection
+     * @param containers   container objects
+     * @param containerIds ids of the containers, in the same order as the containers
+     * @param tenantId     id of tenant
+     * @throws AppCloudException
+     */
+    private void addContainerServiceProxies(Connection dbConnection, List<Container> containers,
+                                            List<Integer> containerIds, int tenantId) throws AppCloudException {
+
+        PreparedStatement preparedStatement = null;
+        int proxyCount = 0;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_CONTAINER_SERVICE_PROXY);
+            for (int i = 0; i < containers.size(); i++) {
+                Set<ContainerServiceProxy> serviceProxies = containers.get(i).getServiceProxies();
+                if (serviceProxies == null) {
+                    continue;
+                }
+                for (ContainerServiceProxy containerServiceProxy : serviceProxies) {
+                    setContainerServiceProxyParameters(preparedStatement, containerServiceProxy, containerIds.get(i),
+                            tenantId);
+                    preparedStatement.addBatch();
+                    proxyCount++;
+                }
             }
-            for (ContainerServiceProxy containerServiceProxy : container.getServiceProxies()) {
-                addContainerServiceProxy(dbConnection, containerServiceProxy, containerId, tenantId);
+            if (proxyCount > 0) {
+                preparedStatement.executeBatch();
             }
-
         } catch (SQLException e) {
-            String msg = "Error while inserting deployment container record in tenant : " + tenantId;
+            String msg = "Error while inserting container service proxy records in tenant : " + tenantId;
             throw new AppCloudException(msg, e);
         } finally {
             DBUtil.closePreparedStatement(preparedStatement);
@@ -435,14 +500,8 @@ public class ApplicationDAO {
 
         try {
 
-            preparedStatement = dbConnection.
-                    prepareStatement(SQLQueryConstants.ADD_CONTAINER_SERVICE_PROXY, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, containerServiceProxy.getServiceName());
-            preparedStatement.setString(2, containerServiceProxy.getServiceProtocol());
-            preparedStatement.setInt(3, containerServiceProxy.getServicePort());
-            preparedStatement.setString(4, containerServiceProxy.getServiceBackendPort());
-            preparedStatement.setInt(5, containerId);
-            preparedStatement.setInt(6, tenantId);
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.ADD_CONTAINER_SERVICE_PROXY);
+            setContainerServiceProxyParameters(preparedStatement, containerServiceProxy, containerId, tenantId);
             preparedStatement.execute();
 
         } catch (SQLException e) {
@@ -453,6 +512,17 @@ public class ApplicationDAO {
         }
     }
 
+    private void setContainerServiceProxyParameters(PreparedStatement preparedStatement,
+                                                    ContainerServiceProxy containerServiceProxy, int containerId,
+                                                    int tenantId) throws SQLException {
+        preparedStatement.setString(1, containerServiceProxy.getServiceName());
+        preparedStatement.setString(2, containerServiceProxy.getServiceProtocol());
+        preparedStatement.setInt(3, containerServiceProxy.getServicePort());
+        preparedStatement.setString(4, containerServiceProxy.getServiceBackendPort());
+        preparedStatement.setInt(5, containerId);
+        preparedStatement.setInt(6, tenantId);
+    }
+
     /**
      * Method for updating application icon.
      *
@@ -919,7 +989,8 @@ public class ApplicationDAO {
     }
 
     /**
-     * Method for retrieving all the versions of a specific application.
+     * Method for retrieving all the versions of a specific application, along with their tags and runtime
+     * properties. The tags and runtime properties of all the versions are loaded with a single query.
      *
      * @param dbConnection      database connection
      * @param applicationHashId hash id of application
@@ -933,6 +1004,7 @@ public class ApplicationDAO {
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
         List<Version> versions = new ArrayList<>();
+        Map<Integer, Version> versionsById = new HashMap<>();
         try {
 
             preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_ALL_VERSIONS_OF_APPLICATION);
@@ -943,6 +1015,7 @@ public class ApplicationDAO {
             while (resultSet.next()) {
 
                 Version version = new Version();
+                version.setId(resultSet.getInt(SQLQueryConstants.ID));
                 version.setVersionName(resultSet.getString(SQLQueryConstants.NAME));
                 version.setHashId(resultSet.getString(SQLQueryConstants.HASH_ID));
                 version.setRuntimeName(resultSet.getString(SQLQueryConstants.RUNTIME_NAME));
@@ -951,11 +1024,11 @@ public class ApplicationDAO {
                 version.setConSpecCpu(resultSet.getString(SQLQueryConstants.CON_SPEC_CPU));
                 version.setConSpecMemory(resultSet.getString((SQLQueryConstants.CON_SPEC_MEMORY)));
                 version.setIsWhiteListed(resultSet.getInt(SQLQueryConstants.IS_WHITE_LISTED));
-                version.setTags(getAllTagsOfVersion(dbConnection, version.getHashId(), tenantId));
-                version.setRuntimeProperties(
-                        getAllRuntimePropertiesOfVersion(dbConnection, version.getHashId(), tenantId));
+                version.setTags(new ArrayList<Tag>());
+                version.setRuntimeProperties(new ArrayList<RuntimeProperty>());
 
                 versions.add(version);
+                versionsById.put(version.getId(), version);
             }
 
         } catch (SQLException e) {
@@ -967,9 +1040,70 @@ public class ApplicationDAO {
             DBUtil.closePreparedStatement(preparedStatement);
         }
 
+        if (!versions.isEmpty()) {
+            addTagsAndRuntimePropertiesOfVersions(dbConnection, applicationHashId, tenantId, versionsById);
+        }
         return versions;
     }
 
+    /**
+     * Load the tags and runtime properties of all the versions of an application with a single query, and add them
+     * to the given versions.
+     *
+     * @param dbConnection      database connection
+     * @param applicationHashId hash id of application
+     * @param tenantId          id of tenant
+     * @param versionsById      versions of the application keyed by version id
+     * @throws AppCloudException
+     */
+    private void addTagsAndRuntimePropertiesOfVersions(Connection dbConnection, String applicationHashId, int tenantId,
+            Map<Integer, Version> versionsById) throws AppCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        try {
+
+            preparedStatement = dbConnection.prepareStatement(
+                    SQLQueryConstants.GET_ALL_TAGS_AND_RUNTIME_PROPERTIES_OF_APPLICATION);
+            preparedStatement.setString(1, applicationHashId);
+            preparedStatement.setInt(2, tenantId);
+            preparedStatement.setString(3, applicationHashId);
+            preparedStatement.setInt(4, tenantId);
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+
+                Version version = versionsById.get(resultSet.getInt(SQLQueryConstants.VERSION_ID));
+                if (version == null) {
+                    // version added after the versions were loaded
+                    continue;
+                }
+                if (SQLQueryConstants.PROPERTY_TYPE_TAG.equals(resultSet.getString(SQLQueryConstants.PROPERTY_TYPE))) {
+                    Tag tag = new Tag();
+                    tag.setTagName(resultSet.getString(SQLQueryConstants.NAME));
+                    tag.setTagValue(resultSet.getString(SQLQueryConstants.VALUE));
+                    tag.setDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                    version.getTags().add(tag);
+                } else {
+                    RuntimeProperty runtimeProperty = new RuntimeProperty();
+                    runtimeProperty.setPropertyName(resultSet.getString(SQLQueryConstants.NAME));
+                    runtimeProperty.setPropertyValue(resultSet.getString(SQLQueryConstants.VALUE));
+                    runtimeProperty.setDescription(resultSet.getString(SQLQueryConstants.DESCRIPTION));
+                    runtimeProperty.setSecured(resultSet.getBoolean(SQLQueryConstants.IS_SECURED));
+                    version.getRuntimeProperties().add(runtimeProperty);
+                }
+            }
+
+        } catch (SQLException e) {
+            String msg = "Error while retrieving tags and runtime properties of versions of application with hash id : "
+                    + applicationHashId + " in tenant : " + tenantId;
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
 
     /**
      * Method for retrieving list of labels belongs to a given version of an application.
@@ -1612,6 +1746,82 @@ public class ApplicationDAO {
 
     }
 
+    /**
+     * Delete a chunk of the deployments of a tenant, together with their containers and service proxies.
+     *
+     * @param dbConnection database connection
+     * @param tenantId     id of tenant
+     * @param chunkSize    maximum number of deployments to delete
+     * @return number of deleted deployments
+     * @throws AppCloudException
+     */
+    public int deleteDeploymentsOfTenant(Connection dbConnection, int tenantId, int chunkSize)
+            throws AppCloudException {
+        return deleteChunkOfTenant(dbConnection, SQLQueryConstants.DELETE_DEPLOYMENTS_OF_TENANT, tenantId, chunkSize,
+                "deployments");
+    }
+
+    /**
+     * Delete a chunk of the events of a tenant.
+     *
+     * @param dbConnection database connection
+     * @param tenantId     id of tenant
+     * @param chunkSize    maximum number of events to delete
+     * @return number of deleted events
+     * @throws AppCloudException
+     */
+    public int deleteEventsOfTenant(Connection dbConnection, int tenantId, int chunkSize) throws AppCloudException {
+        return deleteChunkOfTenant(dbConnection, SQLQueryConstants.DELETE_EVENTS_OF_TENANT, tenantId, chunkSize,
+                "events");
+    }
+
+    /**
+     * Delete a chunk of the application contexts of a tenant.
+     *
+     * @param dbConnection database connection
+     * @param tenantId     id of tenant
+     * @param chunkSize    maximum number of application contexts to delete
+     * @return number of deleted application contexts
+     * @throws AppCloudException
+     */
+    public int deleteApplicationContextsOfTenant(Connection dbConnection, int tenantId, int chunkSize)
+            throws AppCloudException {
+        return deleteChunkOfTenant(dbConnection, SQLQueryConstants.DELETE_APPLICATION_CONTEXTS_OF_TENANT, tenantId,
+                chunkSize, "application contexts");
+    }
+
+    /**
+     * Delete a chunk of the applications of a tenant, together with their icons, versions, tags and runtime
+     * properties.
+     *
+     * @param dbConnection database connection
+     * @param tenantId     id of tenant
+     * @param chunkSize    maximum number of applications to delete
+     * @return number of deleted applications
+     * @throws AppCloudException
+     */
+    public int deleteApplicationsOfTenant(Connection dbConnection, int tenantId, int chunkSize)
+            throws AppCloudException {
+        return deleteChunkOfTenant(dbConnection, SQLQueryConstants.DELETE_APPLICATIONS_OF_TENANT, tenantId, chunkSize,
+                "applications");
+    }
+
+    private int deleteChunkOfTenant(Connection dbConnection, String query, int tenantId, int chunkSize,
+                                    String description) throws AppCloudException {
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = dbConnection.prepareStatement(query);
+            preparedStatement.setInt(1, tenantId);
+            preparedStatement.setInt(2, chunkSize);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Error while deleting " + description + " in tenant : " + tenantId;
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
     /**
      * Method for deleting deployment.
      *
@@ -2433,7 +2643,84 @@ public class ApplicationDAO {
         } catch (SQLException e) {
             String msg = "Error while getting all running applications of all tenants.";
             throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
+
+    /**
+     * Stream the application versions in a given status of a range of tenants to a handler, ordered by tenant id.
+     * Versions are read in pages using the last read tenant id and version id as the cursor, so that only a single
+     * page is held in memory. A page is read completely before its versions are handed to the handler, so a slow
+     * handler does not keep a result set open.
+     *
+     * @param dbConnection database connection
+     * @param status       status of the versions
+     * @param fromTenantId lowest tenant id, inclusive
+     * @param toTenantId   highest tenant id, inclusive
+     * @param pageSize     number of versions read at a time
+     * @param handler      handler of the versions
+     * @return number of streamed versions
+     * @throws AppCloudException
+     */
+    public int streamApplicationVersionsOfTenants(Connection dbConnection, String status, int fromTenantId,
+                                                  int toTenantId, int pageSize, ApplicationVersionHandler handler)
+            throws AppCloudException {
+        List<Integer> tenantIds = new ArrayList<>(pageSize);
+        List<Application> applications = new ArrayList<>(pageSize);
+        int lastTenantId = fromTenantId;
+        int lastVersionId = 0;
+        int streamedCount = 0;
+        boolean hasMore = true;
+        while (hasMore) {
+            PreparedStatement preparedStatement = null;
+            ResultSet resultSet = null;
+            try {
+                preparedStatement = dbConnection.prepareStatement(
+                        SQLQueryConstants.GET_APPLICATION_VERSIONS_OF_TENANTS_PAGE, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                preparedStatement.setFetchSize(pageSize);
+                preparedStatement.setString(1, status);
+                preparedStatement.setInt(2, toTenantId);
+                preparedStatement.setInt(3, lastTenantId);
+                preparedStatement.setInt(4, lastTenantId);
+                preparedStatement.setInt(5, lastVersionId);
+                preparedStatement.setInt(6, pageSize);
+                resultSet = preparedStatement.executeQuery();
+
+                while (resultSet.next()) {
+                    lastTenantId = resultSet.getInt(SQLQueryConstants.TENANT_ID);
+                    lastVersionId = resultSet.getInt(SQLQueryConstants.VERSION_ID);
+                    Application application = new Application();
+                    application.setDefaultVersion(resultSet.getString("VERSION_NAME"));
+                    application.setHashId(resultSet.getString("VERSION_HASH_ID"));
+                    application.setApplicationName(resultSet.getString("APPLICATION_NAME"));
+                    application.setApplicationType(resultSet.getString("APP_TYPE_NAME"));
+                    application.setCpu(resultSet.getInt("CONTAINER_CPU"));
+                    application.setRam(resultSet.getInt("CONTAINER_MEM"));
+                    tenantIds.add(lastTenantId);
+                    applications.add(application);
+                }
+            } catch (SQLException e) {
+                String msg = "Error while getting application versions in status : " + status + " of tenants from : "
+                        + fromTenantId + " to : " + toTenantId + " after version id : " + lastVersionId
+                        + " of tenant : " + lastTenantId;
+                throw new AppCloudException(msg, e);
+            } finally {
+                DBUtil.closeResultSet(resultSet);
+                DBUtil.closePreparedStatement(preparedStatement);
+            }
+
+            hasMore = applications.size() == pageSize;
+            for (int i = 0; i < applications.size(); i++) {
+                handler.handle(tenantIds.get(i), applications.get(i));
+            }
+            streamedCount += applications.size();
+            tenantIds.clear();
+            applications.clear();
         }
+        return streamedCount;
     }
 
     /**
@@ -2469,6 +2756,9 @@ public class ApplicationDAO {
         } catch (SQLException e) {
             String msg = "Error while getting all running applications of all tenants.";
             throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
         }
     }
 
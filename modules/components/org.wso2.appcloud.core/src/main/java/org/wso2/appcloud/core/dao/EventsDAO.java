@@ -25,6 +25,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -159,4 +160,78 @@ public class EventsDAO {
         }
         return eventList;
     }
+
+    /**
+     * Get the ids of a batch of events which can be compacted, i.e. events older than the given time which are not
+     * the latest event of their name for the version.
+     *
+     * @param dbConnection database connection
+     * @param lastEventId  id of the last event of the previous batch, or 0 for the first batch
+     * @param olderThan    events on or after this time are kept
+     * @param batchSize    maximum number of ids to return
+     * @return ids of compactable events in ascending order
+     * @throws AppCloudException
+     */
+    public List<Integer> getCompactableEventIds(Connection dbConnection, int lastEventId, Timestamp olderThan,
+                                                int batchSize) throws AppCloudException {
+
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        List<Integer> eventIds = new ArrayList<>();
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(SQLQueryConstants.GET_COMPACTABLE_EVENT_IDS);
+            preparedStatement.setInt(1, lastEventId);
+            preparedStatement.setTimestamp(2, olderThan);
+            preparedStatement.setInt(3, batchSize);
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                eventIds.add(resultSet.getInt(SQLQueryConstants.ID));
+            }
+        } catch (SQLException e) {
+            String msg = "Error while retrieving compactable events after event id : " + lastEventId +
+                    " older than : " + olderThan;
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closeResultSet(resultSet);
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+        return eventIds;
+    }
+
+    /**
+     * Delete events by id with a single statement.
+     *
+     * @param dbConnection database connection
+     * @param eventIds     ids of events
+     * @return number of deleted events
+     * @throws AppCloudException
+     */
+    public int deleteEvents(Connection dbConnection, List<Integer> eventIds) throws AppCloudException {
+
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        StringBuilder parameterMarkers = new StringBuilder("?");
+        for (int i = 1; i < eventIds.size(); i++) {
+            parameterMarkers.append(",?");
+        }
+        PreparedStatement preparedStatement = null;
+
+        try {
+            preparedStatement = dbConnection.prepareStatement(String.format(SQLQueryConstants.DELETE_EVENTS,
+                    parameterMarkers));
+            int parameterIndex = 1;
+            for (Integer eventId : eventIds) {
+                preparedStatement.setInt(parameterIndex++, eventId);
+            }
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Error occurred while deleting " + eventIds.size() + " events";
+            throw new AppCloudException(msg, e);
+        } finally {
+            DBUtil.closePreparedStatement(preparedStatement);
+        }
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.deployment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deployment job of an application version, consisting of stages which are executed in order by the
+ * {@link DeploymentPipeline}.
+ */
+public class DeploymentJob {
+
+    /**
+     * Status of a deployment job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String jobId;
+    private final int tenantId;
+    private final String tenantDomain;
+    private final String versionHashId;
+    private final List<DeploymentStage> stages;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final long submittedTime;
+    private volatile long finishedTime;
+    private volatile Status status = Status.QUEUED;
+    private volatile String currentStage;
+    private volatile String failureReason;
+
+    public DeploymentJob(int tenantId, String tenantDomain, String versionHashId, List<DeploymentStage> stages) {
+        this.jobId = UUID.randomUUID().toString();
+        this.tenantId = tenantId;
+        this.tenantDomain = tenantDomain;
+        this.versionHashId = versionHashId;
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        this.submittedTime = System.currentTimeMillis();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public int getTenantId() {
+        return tenantId;
+    }
+
+    public String getTenantDomain() {
+        return tenantDomain;
+    }
+
+    public String getVersionHashId() {
+        return versionHashId;
+    }
+
+    public List<DeploymentStage> getStages() {
+        return stages;
+    }
+
+    public long getSubmittedTime() {
+        return submittedTime;
+    }
+
+    public long getFinishedTime() {
+        return finishedTime;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getCurrentStage() {
+        return currentStage;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    /**
+     * Get a value shared between the stages of this job.
+     *
+     * @param name name of the attribute
+     * @return value of the attribute or null if not set
+     */
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * Set a value to be shared between the stages of this job.
+     *
+     * @param name  name of the attribute
+     * @param value value of the attribute
+     */
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    void setCurrentStage(String currentStage) {
+        this.currentStage = currentStage;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded() {
+        finishedTime = System.currentTimeMillis();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String reason) {
+        failureReason = reason;
+        finishedTime = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.deployment;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudConstant;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.ApplicationManager;
+import org.wso2.appcloud.core.EventsManager;
+import org.wso2.appcloud.core.Util;
+import org.wso2.appcloud.core.dto.Event;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs deployment jobs asynchronously on a bounded pool of workers. Queued jobs are handed to the workers in round
+ * robin order of tenants, so a tenant submitting many jobs does not delay the jobs of other tenants. The progress of
+ * each stage is recorded as application creation events, and the application version is marked as failed when a stage
+ * fails. Stages run on the pipeline workers after the request has returned, hence they should not depend on the request
+ * and everything they need should be resolved before the job is submitted.
+ */
+public class DeploymentPipeline {
+
+    private static final Log log = LogFactory.getLog(DeploymentPipeline.class);
+
+    public static final String PROPERTY_WORKER_COUNT = "DeploymentPipeline.WorkerCount";
+    public static final String PROPERTY_QUEUE_CAPACITY = "DeploymentPipeline.QueueCapacity";
+    public static final String PROPERTY_JOB_RETENTION_TIME = "DeploymentPipeline.JobRetentionTime";
+    private static final int DEFAULT_WORKER_COUNT = 10;
+    private static final int DEFAULT_QUEUE_CAPACITY = 500;
+    private static final int DEFAULT_JOB_RETENTION_TIME = 3600000;
+
+    public static final String EVENT_STATUS_PENDING = "pending";
+    public static final String EVENT_STATUS_SUCCEEDED = "success";
+    public static final String EVENT_STATUS_FAILED = "failed";
+
+    private static final DeploymentPipeline deploymentPipeline = new DeploymentPipeline();
+
+    private final int workerCount;
+    private final int queueCapacity;
+    private final long jobRetentionTime;
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition jobAvailable = queueLock.newCondition();
+    // pending jobs per tenant, and the tenants having pending jobs in the order they get a worker
+    private final Map<Integer, Queue<DeploymentJob>> tenantQueues = new LinkedHashMap<>();
+    private final Queue<Integer> tenantOrder = new LinkedList<>();
+    private final Map<String, DeploymentJob> jobs = new ConcurrentHashMap<>();
+    private final EventsManager eventsManager = new EventsManager();
+    private ExecutorService workers;
+    private int queuedJobCount;
+    private boolean shutdown;
+
+    private DeploymentPipeline() {
+        workerCount = Util.getIntPropertyValue(PROPERTY_WORKER_COUNT, DEFAULT_WORKER_COUNT);
+        queueCapacity = Util.getIntPropertyValue(PROPERTY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+        jobRetentionTime = Util.getIntPropertyValue(PROPERTY_JOB_RETENTION_TIME, DEFAULT_JOB_RETENTION_TIME);
+    }
+
+    public static DeploymentPipeline getInstance() {
+        return deploymentPipeline;
+    }
+
+    /**
+     * Method for submitting a deployment job for an application version of the current tenant.
+     *
+     * @param versionHashId version hash id
+     * @param stages        stages of the job in execution order
+     * @return id of the submitted job
+     * @throws AppCloudException if the pipeline is shut down or the queue is full
+     */
+    public String submit(String versionHashId, List<DeploymentStage> stages) throws AppCloudException {
+        CarbonContext carbonContext = CarbonContext.getThreadLocalCarbonContext();
+        DeploymentJob job = new DeploymentJob(carbonContext.getTenantId(), carbonContext.getTenantDomain(),
+                versionHashId, stages);
+        removeExpiredJobs();
+
+        queueLock.lock();
+        try {
+            if (shutdown) {
+                String msg = "Deployment pipeline is shut down, hence cannot submit deployment job for version : "
+                        + versionHashId + " in tenant : " + job.getTenantId();
+                log.error(msg);
+                throw new AppCloudException(msg);
+            }
+            if (queuedJobCount >= queueCapacity) {
+                String msg = "Deployment queue is full with " + queuedJobCount + " jobs, hence cannot submit " +
+                        "deployment job for version : " + versionHashId + " in tenant : " + job.getTenantId();
+                log.error(msg);
+                throw new AppCloudException(msg);
+            }
+            startWorkers();
+            Queue<DeploymentJob> tenantQueue = tenantQueues.get(job.getTenantId());
+            if (tenantQueue == null) {
+                tenantQueue = new LinkedList<>();
+                tenantQueues.put(job.getTenantId(), tenantQueue);
+                tenantOrder.add(job.getTenantId());
+            }
+            tenantQueue.add(job);
+            queuedJobCount++;
+            jobs.put(job.getJobId(), job);
+            jobAvailable.signal();
+        } finally {
+            queueLock.unlock();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Submitted deployment job : " + job.getJobId() + " for version : " + versionHashId
+                    + " in tenant : " + job.getTenantId());
+        }
+        return job.getJobId();
+    }
+
+    /**
+     * Method for getting a deployment job of the current tenant.
+     *
+     * @param jobId id of the job
+     * @return deployment job or null if there is no such job in the current tenant
+     */
+    public DeploymentJob getJob(String jobId) {
+        DeploymentJob job = jobs.get(jobId);
+        if (job == null || job.getTenantId() != CarbonContext.getThreadLocalCarbonContext().getTenantId()) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * Method for getting the number of jobs waiting for a worker.
+     *
+     * @return number of queued jobs
+     */
+    public int getQueuedJobCount() {
+        queueLock.lock();
+        try {
+            return queuedJobCount;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Start accepting jobs, e.g. after the pipeline was shut down when the component was deactivated. The workers are
+     * started when the first job is submitted.
+     */
+    public void start() {
+        queueLock.lock();
+        try {
+            shutdown = false;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting jobs and stop the workers. Jobs which are not yet started are discarded.
+     */
+    public void shutdown() {
+        ExecutorService executorService;
+        queueLock.lock();
+        try {
+            shutdown = true;
+            executorService = workers;
+            workers = null;
+            for (Queue<DeploymentJob> tenantQueue : tenantQueues.values()) {
+                for (DeploymentJob job : tenantQueue) {
+                    job.markFailed("Deployment pipeline was shut down before the job was started");
+                }
+            }
+            tenantQueues.clear();
+            tenantOrder.clear();
+            queuedJobCount = 0;
+            jobAvailable.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+        if (executorService != null) {
+            executorService.shutdownNow();
+            try {
+                if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Deployment pipeline workers did not terminate within 30 seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // should be called while holding the queue lock
+    private void startWorkers() {
+        if (workers != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "deployment-pipeline-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    DeploymentJob job;
+                    while ((job = takeNextJob()) != null) {
+                        runJob(job);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Take the next job of the tenant whose turn it is, waiting until a job is available.
+     *
+     * @return next job or null if the pipeline is shut down
+     */
+    private DeploymentJob takeNextJob() {
+        queueLock.lock();
+        try {
+            while (!shutdown && tenantOrder.isEmpty()) {
+                jobAvailable.await();
+            }
+            if (shutdown) {
+                return null;
+            }
+            Integer tenantId = tenantOrder.poll();
+            Queue<DeploymentJob> tenantQueue = tenantQueues.get(tenantId);
+            DeploymentJob job = tenantQueue.poll();
+            if (tenantQueue.isEmpty()) {
+                tenantQueues.remove(tenantId);
+            } else {
+                tenantOrder.add(tenantId);
+            }
+            queuedJobCount--;
+            return job;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private void runJob(DeploymentJob job) {
+        job.markRunning();
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(job.getTenantId());
+            carbonContext.setTenantDomain(job.getTenantDomain());
+
+            for (DeploymentStage stage : job.getStages()) {
+                job.setCurrentStage(stage.getName());
+                addEvent(job, stage.getName(), EVENT_STATUS_PENDING, "Started " + stage.getName());
+                boolean proceed;
+                try {
+                    proceed = stage.execute(job);
+                } catch (Exception e) {
+                    String msg = "Error while executing stage : " + stage.getName() + " of deployment job : "
+                            + job.getJobId() + " for version : " + job.getVersionHashId() + " in tenant : "
+                            + job.getTenantId();
+                    log.error(msg, e);
+                    addEvent(job, stage.getName(), EVENT_STATUS_FAILED, stage.getName() + " failed");
+                    job.markFailed(msg);
+                    updateVersionStatus(job, AppCloudConstant.VERSION_STATUS_ERROR);
+                    return;
+                }
+                if (!proceed) {
+                    addEvent(job, stage.getName(), EVENT_STATUS_FAILED, stage.getName() + " failed");
+                    job.markFailed("Stage : " + stage.getName() + " stopped the deployment job");
+                    updateVersionStatus(job, AppCloudConstant.VERSION_STATUS_ERROR);
+                    log.warn("Stage : " + stage.getName() + " stopped deployment job : " + job.getJobId()
+                            + " for version : " + job.getVersionHashId() + " in tenant : " + job.getTenantId());
+                    return;
+                }
+                addEvent(job, stage.getName(), EVENT_STATUS_SUCCEEDED, "Completed " + stage.getName());
+            }
+            job.markSucceeded();
+            if (log.isDebugEnabled()) {
+                log.debug("Completed deployment job : " + job.getJobId() + " for version : "
+                        + job.getVersionHashId() + " in tenant : " + job.getTenantId());
+            }
+        } finally {
+            if (!job.isFinished()) {
+                job.markFailed("Deployment job was interrupted");
+                updateVersionStatus(job, AppCloudConstant.VERSION_STATUS_ERROR);
+            }
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void addEvent(DeploymentJob job, String name, String status, String description) {
+        Event event = new Event();
+        event.setEventName(name);
+        event.setEventStatus(status);
+        event.setTimestamp(new Timestamp(System.currentTimeMillis()));
+        event.setEventDescription(description);
+        try {
+            eventsManager.addAppCreationEvent(job.getVersionHashId(), event);
+        } catch (AppCloudException e) {
+            // progress events are informative, hence the job continues without them
+            log.warn("Could not record event : " + name + " with status : " + status + " of deployment job : "
+                    + job.getJobId(), e);
+        }
+    }
+
+    private void updateVersionStatus(DeploymentJob job, String status) {
+        try {
+            ApplicationManager.updateVersionStatus(job.getVersionHashId(), status);
+        } catch (AppCloudException e) {
+            log.error("Error while updating the status of version : " + job.getVersionHashId() + " to : " + status
+                    + " for deployment job : " + job.getJobId(), e);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        long expiryTime = System.currentTimeMillis() - jobRetentionTime;
+        Iterator<DeploymentJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            DeploymentJob job = iterator.next();
+            if (job.isFinished() && job.getFinishedTime() < expiryTime) {
+                iterator.remove();
+            }
+        }
+    }
+}
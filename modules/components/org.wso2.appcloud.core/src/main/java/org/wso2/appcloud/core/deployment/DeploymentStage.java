@@ -0,0 +1,41 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.deployment;
+
+import org.wso2.appcloud.common.AppCloudException;
+
+/**
+ * A single step of a deployment job, e.g. building or pushing the docker image of an application version.
+ */
+public interface DeploymentStage {
+
+    /**
+     * Name of the stage. This is used as the name of the events recorded for the stage.
+     *
+     * @return name of the stage
+     */
+    String getName();
+
+    /**
+     * Execute the stage.
+     *
+     * @param job deployment job the stage belongs to
+     * @return true if the job should continue with the next stage, false if the job should be stopped
+     * @throws AppCloudException
+     */
+    boolean execute(DeploymentJob job) throws AppCloudException;
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.appcloud.core.deployment;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.docker.DockerClient;
+
+/**
+ * Deployment stage building the docker image of an application version from a docker file which is already created.
+ */
+public class DockerImageBuildStage implements DeploymentStage {
+
+    private static final Log log = LogFactory.getLog(DockerImageBuildStage.class);
+
+    public static final String STAGE_NAME = "Building Docker image";
+    // builds are retried to recover from the interrupted builds of the docker client
+    private static final int BUILD_RETRY_COUNT = 3;
+
+    private final DockerClient dockerClient;
+    private final String repoUrl;
+    private final String imageName;
+    private final String tag;
+    private final String dockerFilePath;
+    private final boolean noCache;
+
+    /**
+     * @param dockerClient   docker client of the docker host to build on
+     * @param repoUrl        docker registry url
+     * @param imageName      application runtime image name, e.g. wso2as
+     * @param tag            tag name
+     * @param dockerFilePath absolute path of the docker file
+     * @param noCache        true to rebuild all the layers without using the docker layer cache
+     */
+    public DockerImageBuildStage(DockerClient dockerClient, String repoUrl, String imageName, String tag,
+            String dockerFilePath, boolean noCache) {
+        this.dockerClient = dockerClient;
+        this.repoUrl = repoUrl;
+        this.imageName = imageName;
+        this.tag = tag;
+        this.dockerFilePath = dockerFilePath;
+        this.noCache = noCache;
+    }
+
+    @Override
+    public String getName() {
+        return STAGE_NAME;
+    }
+
+    @Override
+    public boolean execute(DeploymentJob job) throws AppCloudException {
+        for (int i = 0; ; i++) {
+            try {
+                dockerClient.buildDockerImage(repoUrl, imageName, tag, dockerFilePath, noCache);
+                return true;
+            } catch (AppCloudException e) {
+                if (i >= BUILD_RETRY_COUNT) {
+                    throw e;
+                }
+                log.warn("Error while building docker image : " + imageName + ":" + tag + " of deployment job : "
+                        + job.getJobId() + ", hence retrying. Retry count : " + (i + 1), e);
+            }
+        }
+    }
+}
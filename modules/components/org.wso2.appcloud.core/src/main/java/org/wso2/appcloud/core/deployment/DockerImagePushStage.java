@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.appcloud.core.deployment;
+
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.docker.DockerClient;
+
+/**
+ * Deployment stage pushing the docker image of an application version to the docker registry and its mirrors.
+ */
+public class DockerImagePushStage implements DeploymentStage {
+
+    public static final String STAGE_NAME = "Updating Docker registry";
+
+    private final DockerClient dockerClient;
+    private final String imageName;
+    private final String tag;
+
+    /**
+     * @param dockerClient docker client of the docker host the image is built on
+     * @param imageName    image name with the registry url, e.g. registry.docker.appcloud.wso2.com:5000/wso2as
+     * @param tag          tag name
+     */
+    public DockerImagePushStage(DockerClient dockerClient, String imageName, String tag) {
+        this.dockerClient = dockerClient;
+        this.imageName = imageName;
+        this.tag = tag;
+    }
+
+    @Override
+    public String getName() {
+        return STAGE_NAME;
+    }
+
+    @Override
+    public boolean execute(DeploymentJob job) throws AppCloudException {
+        dockerClient.pushDockerImageToRegistries(imageName, tag);
+        return true;
+    }
+}
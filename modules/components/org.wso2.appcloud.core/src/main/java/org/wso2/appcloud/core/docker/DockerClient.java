@@ -17,24 +17,39 @@
 package org.wso2.appcloud.core.docker;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.fabric8.docker.client.Config;
 import io.fabric8.docker.client.ConfigBuilder;
 import io.fabric8.docker.client.DefaultDockerClient;
-import io.fabric8.docker.dsl.EventListener;
-import io.fabric8.docker.dsl.OutputHandle;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.appcloud.common.AppCloudException;
 import org.wso2.appcloud.common.util.AppCloudUtil;
+import org.wso2.appcloud.core.Util;
+import org.wso2.appcloud.core.metrics.DeploymentMetrics;
+import org.wso2.appcloud.core.metrics.StageTimer;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Java client for docker operations.
@@ -43,42 +58,102 @@ public class DockerClient {
 
     private static Log log = LogFactory.getLog(DockerClient.class);
 
-    io.fabric8.docker.client.DockerClient dockerClient;
-    OutputHandle handle;
+    /**
+     * Docker clients shared by all the instances of this class, keyed by the docker url they are connected to.
+     */
+    private static final ConcurrentMap<String, io.fabric8.docker.client.DockerClient> dockerClients =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Scheduler of the delayed retries of failed image pushes, shared by all the instances of this class.
+     */
+    private static final ScheduledExecutorService pushRetryScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "appcloud-docker-push-retry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
 
-    final CountDownLatch buildDone = new CountDownLatch(1);
-    final CountDownLatch pushDone = new CountDownLatch(1);
-    final CountDownLatch pullDone = new CountDownLatch(1);
+    private final io.fabric8.docker.client.DockerClient dockerClient;
 
     final String TAG_LATEST = "latest";
 
     public DockerClient() {
-        Config config = new ConfigBuilder()
-                .withDockerUrl(DockerClientConstants.DEFAULT_DOCKER_URL)
-                .build();
-        dockerClient = new DefaultDockerClient(config);
+        dockerClient = getSharedDockerClient(DockerClientConstants.DEFAULT_DOCKER_URL, false);
     }
 
     public DockerClient(String uri) {
-        Config config = new ConfigBuilder()
-                .withDockerUrl(uri)
-                .withConnectionTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
-                        .DOCKER_CONNECTION_TIMEOUT)))
-                .withRequestTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
-                        .DOCKER_REQUEST_TIMEOUT)))
-                .withImagePushTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
-                        .DOCKER_PUSH_TIMEOUT)))
-                .withImageBuildTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
-                        .DOCKER_BUILLD_TIMEOUT)))
-                .withImageSearchTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
-                        .DOCKER_SEARCH_TIMEOUT)))
-                .build();
-        dockerClient = new DefaultDockerClient(config);
+        dockerClient = getSharedDockerClient(uri, true);
+    }
+
+    /**
+     * Get the docker client connected to the given url, creating it on first use.
+     *
+     * @param uri               docker url
+     * @param configureTimeouts whether the timeouts should be read from the app cloud configuration
+     * @return shared docker client
+     */
+    private static io.fabric8.docker.client.DockerClient getSharedDockerClient(String uri,
+            boolean configureTimeouts) {
+
+        io.fabric8.docker.client.DockerClient sharedClient = dockerClients.get(uri);
+        if (sharedClient != null) {
+            return sharedClient;
+        }
+        ConfigBuilder configBuilder = new ConfigBuilder().withDockerUrl(uri);
+        if (configureTimeouts) {
+            configBuilder.withConnectionTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
+                    .DOCKER_CONNECTION_TIMEOUT)))
+                    .withRequestTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
+                            .DOCKER_REQUEST_TIMEOUT)))
+                    .withImagePushTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
+                            .DOCKER_PUSH_TIMEOUT)))
+                    .withImageBuildTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
+                            .DOCKER_BUILLD_TIMEOUT)))
+                    .withImageSearchTimeout(Integer.parseInt(AppCloudUtil.getPropertyValue(DockerClientConstants
+                            .DOCKER_SEARCH_TIMEOUT)));
+        }
+        Config config = configBuilder.build();
+        io.fabric8.docker.client.DockerClient newClient = new DefaultDockerClient(config);
+        sharedClient = dockerClients.putIfAbsent(uri, newClient);
+        if (sharedClient != null) {
+            // another thread created the client for this url first
+            closeQuietly(newClient);
+            return sharedClient;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Created shared docker client for url : " + uri);
+        }
+        return newClient;
     }
 
     /**
-     * Create a docker file according to given details. This will get docker template file and replace the parameters
-     * with the given customized values in the dockerFilePropertyMap
+     * Close all the shared docker clients.
+     */
+    public static void closeAllClients() {
+        for (String uri : dockerClients.keySet()) {
+            io.fabric8.docker.client.DockerClient sharedClient = dockerClients.remove(uri);
+            if (sharedClient != null) {
+                closeQuietly(sharedClient);
+            }
+        }
+    }
+
+    private static void closeQuietly(io.fabric8.docker.client.DockerClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            log.warn("Error occurred while closing docker client", e);
+        }
+    }
+
+    /**
+     * Create a docker file according to given details. This will get the compiled docker template and render it with
+     * the given customized values in the dockerFilePropertyMap. Creation fails if a placeholder of the template has
+     * no value, unless it is configured as an optional placeholder
      * @param dockerFilePath
      * @param runtimeId - application runtime id
      * @param dockerTemplateFilePath
@@ -108,30 +183,13 @@ public class DockerClient {
         } else {
             dockerFileTemplatePath = dockerTemplateFilePath;
         }
-        List<String> dockerFileConfigs = new ArrayList<>();
-
-        try {
-            for (String line : FileUtils.readLines(new File(dockerFileTemplatePath))) {
-                StringTokenizer stringTokenizer = new StringTokenizer(line);
-                //Search if line contains keyword to replace with the value
-                while (stringTokenizer.hasMoreElements()) {
-                    String element = stringTokenizer.nextElement().toString().trim();
-                    if (dockerFilePropertyMap.containsKey(element)) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Dockerfile placeholder : " + element);
-                        }
-                        String value = dockerFilePropertyMap.get(element);
-                        line = line.replace(element, value);
-                    }
-                }
-                dockerFileConfigs.add(line);
-            }
-        } catch (IOException e) {
-            String msg = "Error occurred while reading docker template file " + dockerFileTemplatePath;
-            throw new AppCloudException(msg,e);
-        }
-        try {
-            FileUtils.writeLines(new File(dockerFilePath), dockerFileConfigs);
+        DockerFileTemplate template = DockerFileTemplate.getTemplate(dockerFileTemplatePath);
+        Set<String> optionalPlaceholders = DockerUtil.getOptionalDockerFilePlaceholders();
+        // validate before opening the docker file, so that no partial docker file is left behind
+        template.validate(dockerFilePropertyMap, optionalPlaceholders);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                FileUtils.openOutputStream(new File(dockerFilePath)), StandardCharsets.UTF_8))) {
+            template.render(dockerFilePropertyMap, optionalPlaceholders, writer);
         } catch (IOException e) {
             String msg = "Error occurred while writing to docker file " + dockerFilePath;
             throw new AppCloudException(msg,e);
@@ -139,67 +197,95 @@ public class DockerClient {
     }
 
     /**
-     * Build created docker images
+     * Build created docker images. The docker layer cache is used according to the cache policy of the runtime.
      * @param repoUrl - docker registry url
      * @param imageName - application runtime name
      * @param tag - tag name
      * @param dockerFileUrl - absolute file upload path
-     * @throws InterruptedException
-     * @throws IOException
      * @throws AppCloudException
      */
     public void buildDockerImage(String repoUrl, String imageName, String tag, String dockerFileUrl)
             throws AppCloudException {
 
-        String dockerImage = repoUrl + "/" + imageName + ":" + tag;
-        final boolean[] dockerStatusCheck = new boolean[1];
-	    dockerStatusCheck[0] = false; //this is to check docker build status, whether it was successful or failed
-        try {
-            handle = dockerClient.image().build()
-                                 .withRepositoryName(dockerImage)
-                                 .withNoCache()
-                                 .usingListener(new EventListener() {
-                                     @Override
-                                     public void onSuccess(String message) {
-                                         log.info("Build Success:" + message);
-                                         buildDone.countDown();
-                                         dockerStatusCheck[0] = true;
-                                     }
-
-                                     @Override
-                                     public void onError(String message) {
-                                         log.error("Build Failure:" + message);
-                                         buildDone.countDown();
-                                     }
-
-                                     @Override
-                                     public void onEvent(String event) {
-                                         log.info(event);
-                                     }
-                                 })
-                                 .fromFolder(dockerFileUrl);
-            buildDone.await();
-        } catch (InterruptedException e) {
-            String msg = "Error occurred while building docker image " + imageName + " with tag : " + tag + " of " +
-                         "docker file : " + dockerFileUrl;
-            throw new AppCloudException(msg, e);
-        } finally {
-            try {
-                handle.close();
-            } catch (IOException e) {
-                log.warn("Error occurred while closing output handle after building docker image " + imageName +
-                         " with tag : " + tag + " of docker file : " + dockerFileUrl);
+        buildDockerImage(repoUrl, imageName, tag, dockerFileUrl, !DockerUtil.isBuildCacheEnabled(imageName));
+    }
 
-            }
-        }
+    /**
+     * Build created docker images
+     * @param repoUrl - docker registry url
+     * @param imageName - application runtime name
+     * @param tag - tag name
+     * @param dockerFileUrl - absolute file upload path
+     * @param noCache - true to rebuild all the layers without using the docker layer cache
+     * @throws AppCloudException
+     */
+    public void buildDockerImage(String repoUrl, String imageName, String tag, String dockerFileUrl, boolean noCache)
+            throws AppCloudException {
 
-        if (!dockerStatusCheck[0]) {
+        DockerOperation operation = buildDockerImageAsync(repoUrl, imageName, tag, dockerFileUrl, noCache);
+        try {
+            operation.await();
+        } catch (AppCloudException e) {
             log.error("Docker image building failed: " + imageName + " repo: " + repoUrl + " docker file: "
                     + dockerFileUrl + " tag: " + tag);
             throw new AppCloudException(
                     "Docker image building failed: " + imageName + " repo: " + repoUrl + " docker file: "
-                            + dockerFileUrl + " tag: " + tag);
+                            + dockerFileUrl + " tag: " + tag, e);
+        }
+    }
+
+    /**
+     * Start building a docker image without waiting for the build to complete. The docker layer cache is used
+     * according to the cache policy of the runtime.
+     * @param repoUrl - docker registry url
+     * @param imageName - application runtime name
+     * @param tag - tag name
+     * @param dockerFileUrl - absolute file upload path
+     * @return handle of the build operation
+     */
+    public DockerOperation buildDockerImageAsync(String repoUrl, String imageName, String tag, String dockerFileUrl) {
+
+        return buildDockerImageAsync(repoUrl, imageName, tag, dockerFileUrl,
+                !DockerUtil.isBuildCacheEnabled(imageName));
+    }
+
+    /**
+     * Start building a docker image without waiting for the build to complete. When the cache is used, the layers
+     * of the runtime base image are reused and only the layers from the artifact onwards are rebuilt.
+     * @param repoUrl - docker registry url
+     * @param imageName - application runtime name
+     * @param tag - tag name
+     * @param dockerFileUrl - absolute file upload path
+     * @param noCache - true to rebuild all the layers without using the docker layer cache
+     * @return handle of the build operation
+     */
+    public DockerOperation buildDockerImageAsync(String repoUrl, String imageName, String tag, String dockerFileUrl,
+            boolean noCache) {
+
+        String dockerImage = repoUrl + "/" + imageName + ":" + tag;
+        DockerOperation operation = new DockerOperation("build of image " + dockerImage + " from " + dockerFileUrl);
+        if (log.isDebugEnabled()) {
+            log.debug("Building docker image : " + dockerImage + (noCache ? " without" : " with") + " layer cache");
         }
+        operation.setTimer(DeploymentMetrics.startTimer(DockerClientConstants.METRICS_STAGE_IMAGE_BUILD, imageName),
+                false);
+        try {
+            if (noCache) {
+                operation.setHandle(dockerClient.image().build()
+                                                .withRepositoryName(dockerImage)
+                                                .withNoCache()
+                                                .usingListener(operation.getEventListener())
+                                                .fromFolder(dockerFileUrl));
+            } else {
+                operation.setHandle(dockerClient.image().build()
+                                                .withRepositoryName(dockerImage)
+                                                .usingListener(operation.getEventListener())
+                                                .fromFolder(dockerFileUrl));
+            }
+        } catch (RuntimeException e) {
+            operation.fail(e);
+        }
+        return operation;
     }
 
     /**
@@ -207,109 +293,222 @@ public class DockerClient {
      *
      * @param imageName - application runtime name
      * @param tag       - tag name
-     * @throws InterruptedException
-     * @throws IOException
      * @throws AppCloudException
      */
     public void pushDockerImage(String imageName, String tag)
             throws AppCloudException {
 
-        final boolean[] dockerStatusCheck = new boolean[1];
-        dockerStatusCheck[0] = false;
+        DockerOperation operation = pushDockerImageAsync(imageName, tag);
         try {
-            handle = dockerClient.image().withName(imageName).push()
-                                 .usingListener(new EventListener() {
-                                     @Override
-                                     public void onSuccess(String message) {
-                                         log.info("Push Success:" + message);
-                                         pushDone.countDown();
-                                         dockerStatusCheck[0] = true;
-                                     }
-
-                                     @Override
-                                     public void onError(String message) {
-                                         log.error("Push Failure:" + message);
-                                         pushDone.countDown();
-                                     }
-
-                                     @Override
-                                     public void onEvent(String event) {
-                                         log.info(event);
-                                     }
-                                 }).withTag(tag).toRegistry();
-            pushDone.await();
+            operation.await();
+        } catch (AppCloudException e) {
+            log.error("Docker image push failed: " + imageName + " tag: " + tag);
+            throw new AppCloudException("Docker image push failed: " + imageName + " tag: " + tag, e);
+        }
+    }
 
-        } catch (InterruptedException e) {
+    /**
+     * Start pushing a docker image without waiting for the push to complete.
+     *
+     * @param imageName - application runtime name
+     * @param tag       - tag name
+     * @return handle of the push operation
+     */
+    public DockerOperation pushDockerImageAsync(String imageName, String tag) {
 
-            String msg = "Error occurred while pushing docker image " + imageName + " with tag : " + tag + " to " +
-                         "docker registry. ";
-            log.error(e);
-            throw new AppCloudException(msg, e);
-        } finally {
-            try {
-                handle.close();
-            } catch (IOException e) {
-                log.warn("Error occurred while closing output handle after pushing docker image " + imageName +
-                         " with tag : " + tag + " to docker registry. " );
-            }
+        DockerOperation operation = new DockerOperation("push of image " + imageName + ":" + tag);
+        operation.setTimer(DeploymentMetrics.startTimer(DockerClientConstants.METRICS_STAGE_IMAGE_PUSH,
+                DockerUtil.getRuntimeName(imageName)), true);
+        try {
+            operation.setHandle(dockerClient.image().withName(imageName).push()
+                                            .usingListener(operation.getEventListener())
+                                            .withTag(tag)
+                                            .toRegistry());
+        } catch (RuntimeException e) {
+            operation.fail(e);
         }
+        return operation;
+    }
 
-        if (!dockerStatusCheck[0]) {
-            log.error("Docker image push failed: " + imageName + " tag: " + tag);
-            throw new AppCloudException(
-                    "Docker image push failed: " + imageName  + " tag: " + tag);
+    /**
+     * Push a docker image to its registry and to all the configured mirror registries concurrently. The mirror
+     * registries are read from Docker.Push.MirrorRegistryURLs, and each push is retried up to Docker.Push.Retries
+     * times with an exponential backoff starting from Docker.Push.RetryBackoff. The push fails if the image could
+     * not be pushed to its own registry, or if it was pushed to less than Docker.Push.Quorum registries in total.
+     *
+     * @param imageName - image name with the registry url, e.g. registry.docker.appcloud.wso2.com:5000/wso2/wso2as
+     * @param tag       - tag name
+     * @return urls of the registries the image was pushed to
+     * @throws AppCloudException
+     */
+    public List<String> pushDockerImageToRegistries(String imageName, String tag) throws AppCloudException {
+
+        String registryUrl = DockerUtil.getRegistryUrl(imageName);
+        if (registryUrl == null) {
+            throw new AppCloudException("Docker image : " + imageName + " does not contain a registry url");
         }
+        List<String> registryUrls = new ArrayList<>();
+        registryUrls.add(registryUrl);
+        for (String mirrorUrl : DockerUtil.getMirrorRegistryUrls()) {
+            if (!registryUrls.contains(mirrorUrl)) {
+                registryUrls.add(mirrorUrl);
+            }
+        }
+        int retries = Util.getIntPropertyValue(DockerClientConstants.DOCKER_PUSH_RETRIES,
+                DockerClientConstants.DEFAULT_DOCKER_PUSH_RETRIES);
+        int quorum = Math.min(Util.getIntPropertyValue(DockerClientConstants.DOCKER_PUSH_QUORUM, registryUrls.size()),
+                registryUrls.size());
+        return pushDockerImageToRegistries(DockerUtil.getRepositoryName(imageName), tag, registryUrl, registryUrls,
+                retries, quorum);
     }
 
-    public void pullDockerImage(String imageRepoUrl, String imageTag) throws AppCloudException {
-
-        if (log.isDebugEnabled()) {
-            log.debug("Docker image pull triggered for repo : " + imageRepoUrl + " with tag : " + imageTag);
+    /**
+     * Push a docker image to several registries concurrently. The image is tagged into the repository of each of
+     * the other registries before it is pushed there.
+     *
+     * @param repositoryName - repository name without the registry url, e.g. wso2/wso2as
+     * @param tag            - tag name
+     * @param sourceRegistry - registry url of the built image
+     * @param registryUrls   - registry urls to push to, including the source registry
+     * @param retries        - number of times a failed push to a registry is retried
+     * @param quorum         - minimum number of registries the image has to be pushed to
+     * @return urls of the registries the image was pushed to
+     * @throws AppCloudException if the push to the source registry failed or the quorum was not met
+     */
+    public List<String> pushDockerImageToRegistries(String repositoryName, String tag, String sourceRegistry,
+            List<String> registryUrls, int retries, int quorum) throws AppCloudException {
+
+        String sourceImage = sourceRegistry + "/" + repositoryName;
+        long backoff = Util.getIntPropertyValue(DockerClientConstants.DOCKER_PUSH_RETRY_BACKOFF,
+                DockerClientConstants.DEFAULT_DOCKER_PUSH_RETRY_BACKOFF);
+        List<ListenableFuture<String>> pushes = new ArrayList<>();
+        for (String registryUrl : registryUrls) {
+            String targetImage = registryUrl + "/" + repositoryName;
+            if (!registryUrl.equals(sourceRegistry)) {
+                boolean tagged;
+                try {
+                    tagged = dockerClient.image().withName(sourceImage + ":" + tag).tag()
+                                         .inRepository(targetImage).withTagName(tag);
+                } catch (RuntimeException e) {
+                    log.warn("Error occurred while tagging docker image : " + sourceImage + ":" + tag
+                            + " for registry : " + registryUrl, e);
+                    tagged = false;
+                }
+                if (!tagged) {
+                    pushes.add(Futures.<String>immediateFailedFuture(new AppCloudException(
+                            "Docker image : " + sourceImage + ":" + tag + " could not be tagged for registry : "
+                                    + registryUrl)));
+                    continue;
+                }
+            }
+            SettableFuture<String> push = SettableFuture.create();
+            pushWithRetries(targetImage, tag, registryUrl, retries, backoff, push);
+            pushes.add(push);
         }
 
-        final boolean[] dockerStatusCheck = new boolean[1];
-        dockerStatusCheck[0] = false;
+        List<String> pushedRegistries = new ArrayList<>();
         try {
-            handle = dockerClient.image().withName(imageRepoUrl).pull()
-                                 .usingListener(new EventListener() {
-                                     @Override
-                                     public void onSuccess(String message) {
-                                         log.info("Pull Success:" + message);
-                                         pullDone.countDown();
-                                         dockerStatusCheck[0] = true;
-
-                                     }
-
-                                     @Override
-                                     public void onError(String message) {
-                                         log.error("Pull Failure:" + message);
-                                         pullDone.countDown();
-                                     }
-
-                                     @Override
-                                     public void onEvent(String event) {
-                                         log.info(event);
-                                     }
-                                 }).withTag(imageTag).fromRegistry();
-            pullDone.await();
-
+            List<String> results = Futures.successfulAsList(pushes).get();
+            for (String result : results) {
+                if (result != null) {
+                    pushedRegistries.add(result);
+                }
+            }
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppCloudException("Interrupted while pushing docker image : " + repositoryName + ":" + tag, e);
+        } catch (ExecutionException e) {
+            throw new AppCloudException("Error occurred while pushing docker image : " + repositoryName + ":" + tag,
+                    e.getCause());
+        }
 
-            String msg = "Error occurred while pulling docker image " + imageRepoUrl + " with tag : " + imageTag;
-            throw new AppCloudException(msg, e);
-        } finally {
-            try {
-                handle.close();
-            } catch (IOException e) {
-                log.warn("Error occurred while closing output handle after pulling docker image " + imageRepoUrl +
-                         " with tag : " + imageTag);
-            }
+        if (!pushedRegistries.contains(sourceRegistry) || pushedRegistries.size() < quorum) {
+            String msg = "Docker image : " + repositoryName + ":" + tag + " was pushed to " + pushedRegistries
+                    + " out of " + registryUrls + ", which does not meet the quorum of " + quorum + " registries"
+                    + " including : " + sourceRegistry;
+            log.error(msg);
+            throw new AppCloudException(msg);
+        }
+        if (pushedRegistries.size() < registryUrls.size()) {
+            log.warn("Docker image : " + repositoryName + ":" + tag + " was only pushed to " + pushedRegistries
+                    + " out of " + registryUrls);
         }
+        return pushedRegistries;
+    }
+
+    /**
+     * Push a docker image, retrying a failed push after the given backoff which is doubled for each retry up to
+     * Docker.Push.MaxRetryBackoff.
+     */
+    private void pushWithRetries(final String imageName, final String tag, final String registryUrl,
+            final int retries, final long backoff, final SettableFuture<String> result) {
+
+        DockerOperation operation = pushDockerImageAsync(imageName, tag);
+        Futures.addCallback(operation.getCompletion(), new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String message) {
+                result.set(registryUrl);
+            }
 
-        if (!dockerStatusCheck[0]) {
+            @Override
+            public void onFailure(Throwable throwable) {
+                if (retries > 0) {
+                    log.warn("Docker image push failed : " + imageName + ":" + tag + ", retrying in " + backoff
+                            + " ms. Remaining retries : " + retries);
+                    final long maxBackoff = Util.getIntPropertyValue(
+                            DockerClientConstants.DOCKER_PUSH_MAX_RETRY_BACKOFF,
+                            DockerClientConstants.DEFAULT_DOCKER_PUSH_MAX_RETRY_BACKOFF);
+                    pushRetryScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            pushWithRetries(imageName, tag, registryUrl, retries - 1, Math.min(backoff * 2, maxBackoff),
+                                    result);
+                        }
+                    }, Math.min(backoff, maxBackoff), TimeUnit.MILLISECONDS);
+                } else {
+                    log.error("Docker image push failed : " + imageName + ":" + tag, throwable);
+                    result.setException(throwable);
+                }
+            }
+        });
+    }
+
+    public void pullDockerImage(String imageRepoUrl, String imageTag) throws AppCloudException {
+
+        DockerOperation operation = pullDockerImageAsync(imageRepoUrl, imageTag);
+        try {
+            operation.await();
+        } catch (AppCloudException e) {
             log.error("Docker image pull failed : " + imageRepoUrl + " with tag : " + imageTag);
-            throw new AppCloudException("Docker image pull failed: " + imageRepoUrl + " with tag : " + imageTag);
+            throw new AppCloudException("Docker image pull failed: " + imageRepoUrl + " with tag : " + imageTag, e);
+        }
+    }
+
+    /**
+     * Start pulling a docker image without waiting for the pull to complete.
+     *
+     * @param imageRepoUrl - image repository url
+     * @param imageTag     - tag name
+     * @return handle of the pull operation
+     */
+    public DockerOperation pullDockerImageAsync(String imageRepoUrl, String imageTag) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Docker image pull triggered for repo : " + imageRepoUrl + " with tag : " + imageTag);
+        }
+        DockerOperation operation = new DockerOperation("pull of image " + imageRepoUrl + ":" + imageTag);
+        // images are only pulled for custom docker images, whose repository names are chosen by the users
+        operation.setTimer(DeploymentMetrics.startTimer(DockerClientConstants.METRICS_STAGE_IMAGE_PULL,
+                DockerClientConstants.METRICS_RUNTIME_CUSTOM), true);
+        try {
+            operation.setHandle(dockerClient.image().withName(imageRepoUrl).pull()
+                                            .usingListener(operation.getEventListener())
+                                            .withTag(imageTag)
+                                            .fromRegistry());
+        } catch (RuntimeException e) {
+            operation.fail(e);
         }
+        return operation;
     }
 
     public void tagDockerImage(String oldImage, String oldTag, String newImageName, String newTag)
@@ -320,8 +519,19 @@ public class DockerClient {
                       "tag : " + newImageName);
         }
 
-        boolean dockerStatusCheck = dockerClient.image().withName(oldImage + ":" + oldTag).tag()
-                                                .inRepository(newImageName).withTagName(newTag);
+        StageTimer timer = DeploymentMetrics.startTimer(DockerClientConstants.METRICS_STAGE_IMAGE_TAG,
+                DockerClientConstants.METRICS_RUNTIME_CUSTOM);
+        boolean dockerStatusCheck = false;
+        try {
+            dockerStatusCheck = dockerClient.image().withName(oldImage + ":" + oldTag).tag()
+                                            .inRepository(newImageName).withTagName(newTag);
+        } finally {
+            if (dockerStatusCheck) {
+                timer.success();
+            } else {
+                timer.failure();
+            }
+        }
         if (!dockerStatusCheck) {
             log.error("Docker custom image tag failed: " + oldImage);
             throw new AppCloudException("Docker custom image tag failed: " + oldImage);
@@ -329,7 +539,16 @@ public class DockerClient {
     }
 
 
+    /**
+     * The underlying docker client is shared and is closed with {@link #closeAllClients()} when the component is
+     * deactivated, hence this does not close it anymore.
+     *
+     * @deprecated the docker client no longer needs to be closed by its users
+     */
+    @Deprecated
     public void clientClose() throws IOException {
-        dockerClient.close();
+        if (log.isDebugEnabled()) {
+            log.debug("Ignoring close request for the shared docker client");
+        }
     }
 }
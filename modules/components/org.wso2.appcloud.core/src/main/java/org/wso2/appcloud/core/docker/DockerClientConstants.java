@@ -45,5 +45,25 @@ public class DockerClientConstants {
     public static final String DOCKER_PUSH_TIMEOUT = "Docker.Push.Timeout";
     public static final String DOCKER_BUILLD_TIMEOUT = "Docker.Build.Timeout";
     public static final String DOCKER_SEARCH_TIMEOUT = "Docker.Search.Timeout";
+
+    public static final String DOCKER_PUSH_MIRROR_REGISTRY_URLS = "Docker.Push.MirrorRegistryURLs";
+    public static final String DOCKER_PUSH_RETRIES = "Docker.Push.Retries";
+    public static final String DOCKER_PUSH_QUORUM = "Docker.Push.Quorum";
+    public static final int DEFAULT_DOCKER_PUSH_RETRIES = 3;
+    public static final String DOCKER_PUSH_RETRY_BACKOFF = "Docker.Push.RetryBackoff";
+    public static final int DEFAULT_DOCKER_PUSH_RETRY_BACKOFF = 2000;
+    public static final String DOCKER_PUSH_MAX_RETRY_BACKOFF = "Docker.Push.MaxRetryBackoff";
+    public static final int DEFAULT_DOCKER_PUSH_MAX_RETRY_BACKOFF = 30000;
+
+    public static final String DOCKER_BUILD_USE_CACHE = "Docker.Build.UseCache";
+    public static final String DOCKER_FILE_CATEGORY_URL = "url";
+    public static final String DOCKER_FILE_CATEGORY_GITHUB = "github";
+    public static final String DOCKER_TEMPLATE_OPTIONAL_PLACEHOLDERS = "Docker.Template.OptionalPlaceholders";
+
+    public static final String METRICS_STAGE_IMAGE_BUILD = "DockerImageBuild";
+    public static final String METRICS_STAGE_IMAGE_PUSH = "DockerImagePush";
+    public static final String METRICS_STAGE_IMAGE_PULL = "DockerImagePull";
+    public static final String METRICS_STAGE_IMAGE_TAG = "DockerImageTag";
+    public static final String METRICS_RUNTIME_CUSTOM = "custom";
 }
 
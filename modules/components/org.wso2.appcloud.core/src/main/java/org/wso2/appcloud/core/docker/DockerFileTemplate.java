@@ -0,0 +1,217 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.docker;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dockerfile template parsed into literal text and placeholder slots. Placeholders in the templates are bare upper
+ * case words such as ARTIFACT_NAME or VAL_TOTAL_MEMORY, and are recognized in every position except the instruction
+ * keyword of a line and the variable name of an ENV instruction.
+ *
+ * Compiled templates are cached by their file path and recompiled when the template file is modified.
+ */
+public class DockerFileTemplate {
+
+    private static Log log = LogFactory.getLog(DockerFileTemplate.class);
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("[A-Z][A-Z0-9_]*");
+    private static final String INSTRUCTION_ENV = "ENV";
+    private static final String LINE_CONTINUATION = "\\";
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private static final ConcurrentMap<String, DockerFileTemplate> templates = new ConcurrentHashMap<>();
+
+    private final String templatePath;
+    private final long lastModified;
+    private final long length;
+    private final List<String> literals;
+    private final List<String> placeholders;
+    private final Set<String> placeholderNames;
+
+    private DockerFileTemplate(String templatePath, long lastModified, long length, List<String> literals,
+            List<String> placeholders) {
+        this.templatePath = templatePath;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.placeholderNames = Collections.unmodifiableSet(new LinkedHashSet<>(placeholders));
+    }
+
+    /**
+     * Get the compiled form of a Dockerfile template. The template is compiled on first use and whenever the
+     * template file has been modified after it was compiled.
+     *
+     * @param templatePath path of the template file
+     * @return compiled template
+     * @throws AppCloudException if the template file cannot be read
+     */
+    public static DockerFileTemplate getTemplate(String templatePath) throws AppCloudException {
+        File templateFile = new File(templatePath);
+        DockerFileTemplate template = templates.get(templatePath);
+        if (template != null && template.lastModified == templateFile.lastModified()
+                && template.length == templateFile.length()) {
+            return template;
+        }
+        template = compile(templateFile);
+        templates.put(templatePath, template);
+        if (log.isDebugEnabled()) {
+            log.debug("Compiled docker template : " + templatePath + " with placeholders : "
+                    + template.placeholderNames);
+        }
+        return template;
+    }
+
+    /**
+     * Remove all the compiled templates from the cache.
+     */
+    public static void clearCache() {
+        templates.clear();
+    }
+
+    private static DockerFileTemplate compile(File templateFile) throws AppCloudException {
+        // file attributes are read before the content, so that a concurrent modification triggers a recompilation
+        long lastModified = templateFile.lastModified();
+        long length = templateFile.length();
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(templateFile), StandardCharsets.UTF_8))) {
+            boolean continuation = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean comment = !continuation && line.trim().startsWith("#");
+                int position = 0;
+                int wordIndex = 0;
+                String instruction = null;
+                while (position < line.length()) {
+                    int start = position;
+                    if (Character.isWhitespace(line.charAt(position))) {
+                        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                            position++;
+                        }
+                        literal.append(line, start, position);
+                        continue;
+                    }
+                    while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+                        position++;
+                    }
+                    String word = line.substring(start, position);
+                    if (wordIndex == 0 && !continuation) {
+                        instruction = word;
+                    }
+                    boolean placeholder = !comment && PLACEHOLDER_PATTERN.matcher(word).matches()
+                            && !(wordIndex == 0 && !continuation)
+                            && !(wordIndex == 1 && INSTRUCTION_ENV.equalsIgnoreCase(instruction));
+                    if (placeholder) {
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                        placeholders.add(word);
+                    } else {
+                        literal.append(word);
+                    }
+                    wordIndex++;
+                }
+                literal.append(LINE_SEPARATOR);
+                continuation = !comment && line.trim().endsWith(LINE_CONTINUATION);
+            }
+        } catch (IOException e) {
+            String msg = "Error occurred while reading docker template file " + templateFile.getPath();
+            throw new AppCloudException(msg, e);
+        }
+        literals.add(literal.toString());
+        return new DockerFileTemplate(templateFile.getPath(), lastModified, length,
+                Collections.unmodifiableList(literals), Collections.unmodifiableList(placeholders));
+    }
+
+    /**
+     * @return names of the placeholders in the template, in the order they first appear
+     */
+    public Set<String> getPlaceholderNames() {
+        return placeholderNames;
+    }
+
+    /**
+     * Check that all the placeholders of the template can be resolved with the given values.
+     *
+     * @param values               placeholder values keyed by placeholder name
+     * @param optionalPlaceholders placeholders which are left as they are when no value is given
+     * @throws AppCloudException if a placeholder which is not optional has no value
+     */
+    public void validate(Map<String, String> values, Set<String> optionalPlaceholders) throws AppCloudException {
+        Set<String> unresolved = new LinkedHashSet<>();
+        for (String placeholder : placeholderNames) {
+            if (values.get(placeholder) == null && !optionalPlaceholders.contains(placeholder)) {
+                unresolved.add(placeholder);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            String msg = "Unresolved placeholders " + unresolved + " in docker template file " + templatePath;
+            log.error(msg);
+            throw new AppCloudException(msg);
+        }
+    }
+
+    /**
+     * Render the template with the given placeholder values in a single pass. The placeholders are validated before
+     * anything is written, so nothing is written if a placeholder cannot be resolved.
+     *
+     * @param values               placeholder values keyed by placeholder name
+     * @param optionalPlaceholders placeholders which are left as they are when no value is given
+     * @param writer               writer to write the rendered Dockerfile to
+     * @throws AppCloudException if a placeholder which is not optional has no value, or writing fails
+     */
+    public void render(Map<String, String> values, Set<String> optionalPlaceholders, Writer writer)
+            throws AppCloudException {
+
+        validate(values, optionalPlaceholders);
+        try {
+            for (int i = 0; i < placeholders.size(); i++) {
+                writer.write(literals.get(i));
+                String value = values.get(placeholders.get(i));
+                writer.write(value != null ? value : placeholders.get(i));
+            }
+            writer.write(literals.get(placeholders.size()));
+            writer.flush();
+        } catch (IOException e) {
+            String msg = "Error occurred while rendering docker template file " + templatePath;
+            throw new AppCloudException(msg, e);
+        }
+    }
+}
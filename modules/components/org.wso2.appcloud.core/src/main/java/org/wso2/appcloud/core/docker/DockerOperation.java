@@ -0,0 +1,240 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.docker;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.fabric8.docker.dsl.EventListener;
+import io.fabric8.docker.dsl.OutputHandle;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.metrics.StageTimer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Handle of a single docker build, push or pull operation. The last lines of the operation output are kept as they
+ * are streamed by the docker daemon, and the completion is available as a future which is failed if the operation
+ * fails.
+ */
+public class DockerOperation {
+
+    private static Log log = LogFactory.getLog(DockerOperation.class);
+
+    private static final Pattern LAYER_ID_PATTERN = Pattern.compile("\\bid\"?\\s*[:=]\\s*\"?([\\w.:-]+)");
+    private static final Pattern LAYER_SIZE_PATTERN = Pattern.compile("\\btotal\"?\\s*[:=]\\s*(\\d+)");
+
+    /**
+     * Maximum number of output lines kept, a push or pull of a large image streams thousands of progress events.
+     */
+    private static final int MAX_OUTPUT_LINES = 100;
+
+    private final String description;
+    private final SettableFuture<String> completion = SettableFuture.create();
+    private final Deque<String> output = new ArrayDeque<>(MAX_OUTPUT_LINES);
+    private final AtomicBoolean handleClosed = new AtomicBoolean(false);
+    private volatile OutputHandle handle;
+    private volatile ConcurrentMap<String, Long> layerSizes;
+
+    /**
+     * @param description description of the operation used in log and error messages, e.g. "build of image x:y"
+     */
+    DockerOperation(String description) {
+        this.description = description;
+        completion.addListener(new Runnable() {
+            @Override
+            public void run() {
+                closeHandle();
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Get the future which completes with the success message of the operation, or fails with an
+     * {@link AppCloudException} carrying the error message of the operation.
+     *
+     * @return completion of the operation
+     */
+    public ListenableFuture<String> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Get the last output lines received so far from the docker daemon, at most {@value #MAX_OUTPUT_LINES} lines.
+     *
+     * @return last output lines of the operation
+     */
+    public List<String> getOutput() {
+        synchronized (output) {
+            return Collections.unmodifiableList(new ArrayList<>(output));
+        }
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Wait until the operation completes.
+     *
+     * @return success message of the operation
+     * @throws AppCloudException if the operation failed or the waiting thread was interrupted
+     */
+    public String await() throws AppCloudException {
+        try {
+            return completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completion.cancel(false);
+            throw new AppCloudException("Interrupted while waiting for docker " + description, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AppCloudException) {
+                throw (AppCloudException) e.getCause();
+            }
+            throw new AppCloudException("Error occurred during docker " + description, e.getCause());
+        }
+    }
+
+    /**
+     * Listener which feeds the docker daemon events of the operation to this handle.
+     *
+     * @return event listener of the operation
+     */
+    EventListener getEventListener() {
+        return new EventListener() {
+            @Override
+            public void onSuccess(String message) {
+                log.info("Docker " + description + " succeeded : " + message);
+                completion.set(message);
+            }
+
+            @Override
+            public void onError(String message) {
+                log.error("Docker " + description + " failed : " + message);
+                completion.setException(new AppCloudException("Docker " + description + " failed : " + message));
+            }
+
+            @Override
+            public void onEvent(String event) {
+                log.info(event);
+                synchronized (output) {
+                    if (output.size() == MAX_OUTPUT_LINES) {
+                        output.removeFirst();
+                    }
+                    output.addLast(event);
+                }
+                if (layerSizes != null) {
+                    recordLayerSize(event);
+                }
+            }
+        };
+    }
+
+    /**
+     * Record the latency and the result of the operation with the given timer once it completes.
+     *
+     * @param timer           timer started for the operation
+     * @param countLayerBytes whether the sizes of the layers in the progress events are recorded as transferred bytes
+     */
+    void setTimer(final StageTimer timer, boolean countLayerBytes) {
+        if (countLayerBytes) {
+            layerSizes = new ConcurrentHashMap<>();
+        }
+        Futures.addCallback(completion, new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String message) {
+                ConcurrentMap<String, Long> sizes = layerSizes;
+                if (sizes != null) {
+                    long bytes = 0;
+                    for (Long size : sizes.values()) {
+                        bytes += size;
+                    }
+                    timer.addBytes(bytes);
+                }
+                timer.success();
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                timer.failure();
+            }
+        });
+    }
+
+    /**
+     * Record the size of a layer from a progress event, e.g. {"status":"Pushing","progressDetail":{"current":512,
+     * "total":1024},"id":"5f70bf18a086"}. Events without progress details are ignored.
+     */
+    private void recordLayerSize(String event) {
+        Matcher sizeMatcher = LAYER_SIZE_PATTERN.matcher(event);
+        Matcher idMatcher = LAYER_ID_PATTERN.matcher(event);
+        if (sizeMatcher.find() && idMatcher.find()) {
+            layerSizes.put(idMatcher.group(1), Long.valueOf(sizeMatcher.group(1)));
+        }
+    }
+
+    /**
+     * Set the output handle of the operation, which is closed once the operation completes.
+     *
+     * @param handle output handle returned by the docker client
+     */
+    void setHandle(OutputHandle handle) {
+        this.handle = handle;
+        if (completion.isDone()) {
+            closeHandle();
+        }
+    }
+
+    /**
+     * Fail the operation when it could not be started.
+     *
+     * @param cause cause of the failure
+     */
+    void fail(Throwable cause) {
+        completion.setException(new AppCloudException("Error occurred while starting docker " + description, cause));
+    }
+
+    private void closeHandle() {
+        OutputHandle outputHandle = handle;
+        if (outputHandle != null && handleClosed.compareAndSet(false, true)) {
+            try {
+                outputHandle.close();
+            } catch (IOException e) {
+                log.warn("Error occurred while closing output handle after docker " + description, e);
+            }
+        }
+    }
+}
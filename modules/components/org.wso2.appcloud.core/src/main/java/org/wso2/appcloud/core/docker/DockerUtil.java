@@ -19,8 +19,14 @@ package org.wso2.appcloud.core.docker;
 import org.wso2.appcloud.common.AppCloudException;
 import org.wso2.appcloud.common.util.AppCloudUtil;
 import org.wso2.appcloud.core.ApplicationManager;
+import org.wso2.appcloud.core.Util;
 import org.wso2.appcloud.core.dto.ApplicationRuntime;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class DockerUtil {
 
     public static String getDockerRegistryUrl() {
@@ -40,4 +46,114 @@ public class DockerUtil {
         return dockerTemplateFilePath + "/" + dockerBaseImageName + "/" + dockerFileCategory + "/Dockerfile" + "."
                 + dockerBaseImageName + "." + dockerBaseImageVersion;
     }
+
+    /**
+     * Check whether the docker layer cache can be used when building application images of a runtime. The policy of
+     * a runtime is read from the property Docker.Build.UseCache.&lt;runtime image name&gt; and falls back to
+     * Docker.Build.UseCache, which is disabled by default.
+     *
+     * @param runtimeImageName image name of the application runtime, e.g. wso2as
+     * @return true if the layer cache can be used
+     */
+    public static boolean isBuildCacheEnabled(String runtimeImageName) {
+        boolean defaultPolicy = Util.getBooleanPropertyValue(DockerClientConstants.DOCKER_BUILD_USE_CACHE, false);
+        return Util.getBooleanPropertyValue(DockerClientConstants.DOCKER_BUILD_USE_CACHE + "." + runtimeImageName,
+                defaultPolicy);
+    }
+
+    /**
+     * Check whether the docker layer cache can be used when building an application image from a docker file of the
+     * given category. The url and github docker files fetch the artifact in a RUN step, which docker caches by the
+     * command only, hence the cache is never used for them.
+     *
+     * @param runtimeImageName   image name of the application runtime, e.g. wso2as
+     * @param dockerFileCategory category of the docker file, i.e. the application creation method
+     * @return true if the layer cache can be used
+     */
+    public static boolean isBuildCacheEnabled(String runtimeImageName, String dockerFileCategory) {
+        if (DockerClientConstants.DOCKER_FILE_CATEGORY_URL.equals(dockerFileCategory)
+                || DockerClientConstants.DOCKER_FILE_CATEGORY_GITHUB.equals(dockerFileCategory)) {
+            return false;
+        }
+        return isBuildCacheEnabled(runtimeImageName);
+    }
+
+    /**
+     * Get the docker template placeholders which can be left unresolved when creating docker files.
+     *
+     * @return names of the optional placeholders
+     */
+    public static Set<String> getOptionalDockerFilePlaceholders() {
+        Set<String> placeholders = new HashSet<>();
+        String value = AppCloudUtil.getPropertyValue(DockerClientConstants.DOCKER_TEMPLATE_OPTIONAL_PLACEHOLDERS);
+        if (value != null) {
+            for (String placeholder : value.split(",")) {
+                if (!placeholder.trim().isEmpty()) {
+                    placeholders.add(placeholder.trim());
+                }
+            }
+        }
+        return placeholders;
+    }
+
+    /**
+     * Get the runtime name from the name of an application image, e.g. wso2as from
+     * registry.docker.appcloud.wso2.com:5000/wso2as
+     *
+     * @param imageName image name with or without the registry url
+     * @return runtime name
+     */
+    public static String getRuntimeName(String imageName) {
+        return imageName.substring(imageName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Get the registry url from the name of an image, e.g. registry.docker.appcloud.wso2.com:5000 from
+     * registry.docker.appcloud.wso2.com:5000/wso2/wso2as. As in docker, the first component of the name is the
+     * registry only if it is a host name, i.e. contains a '.' or a ':', or is localhost.
+     *
+     * @param imageName image name with or without the registry url
+     * @return registry url, or null if the image name does not contain a registry url
+     */
+    public static String getRegistryUrl(String imageName) {
+        int separatorIndex = imageName.indexOf('/');
+        if (separatorIndex < 0) {
+            return null;
+        }
+        String host = imageName.substring(0, separatorIndex);
+        if (host.contains(".") || host.contains(":") || "localhost".equals(host)) {
+            return host;
+        }
+        return null;
+    }
+
+    /**
+     * Get the repository name from the name of an image, e.g. wso2/wso2as from
+     * registry.docker.appcloud.wso2.com:5000/wso2/wso2as
+     *
+     * @param imageName image name with or without the registry url
+     * @return repository name without the registry url
+     */
+    public static String getRepositoryName(String imageName) {
+        String registryUrl = getRegistryUrl(imageName);
+        return registryUrl == null ? imageName : imageName.substring(registryUrl.length() + 1);
+    }
+
+    /**
+     * Get the urls of the mirror registries application images are pushed to along with the docker registry.
+     *
+     * @return mirror registry urls
+     */
+    public static List<String> getMirrorRegistryUrls() {
+        List<String> mirrorUrls = new ArrayList<>();
+        String value = AppCloudUtil.getPropertyValue(DockerClientConstants.DOCKER_PUSH_MIRROR_REGISTRY_URLS);
+        if (value != null) {
+            for (String mirrorUrl : value.split(",")) {
+                if (!mirrorUrl.trim().isEmpty()) {
+                    mirrorUrls.add(mirrorUrl.trim());
+                }
+            }
+        }
+        return mirrorUrls;
+    }
 }
@@ -0,0 +1,40 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.core.dto;
+
+/**
+ * Latest application creation event of each name for an application version, along with the sequence number of the
+ * snapshot. The sequence number changes whenever the events of the version change.
+ */
+public class EventSnapshot {
+
+    private final long sequence;
+    private final Event[] events;
+
+    public EventSnapshot(long sequence, Event[] events) {
+        this.sequence = sequence;
+        this.events = events;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Event[] getEvents() {
+        return events;
+    }
+}
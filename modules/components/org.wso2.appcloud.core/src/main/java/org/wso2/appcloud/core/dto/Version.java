@@ -21,6 +21,7 @@ import java.util.List;
 
 public class Version {
 
+    private int id;
     private String versionName;
     private String hashId;
     private int runtimeId;
@@ -35,6 +36,14 @@ public class Version {
     private int isWhiteListed;
     private String exposureLevel;
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getVersionName() {
         return versionName;
     }
@@ -21,6 +21,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.appcloud.core.ApplicationCache;
+import org.wso2.appcloud.core.DBUtil;
+import org.wso2.appcloud.core.EventCompactionScheduler;
+import org.wso2.appcloud.core.deployment.DeploymentPipeline;
+import org.wso2.appcloud.core.docker.DockerClient;
+import org.wso2.appcloud.core.metrics.DeploymentMetrics;
 
 /**
  * @scr.component name="org.wso2.appcloud.core.internal.ApplicationManagementServiceComponent" immediate="true"
@@ -32,6 +38,9 @@ public class ApplicationManagementServiceComponent {
 
     protected void activate(ComponentContext context) {
 
+        DeploymentPipeline.getInstance().start();
+        EventCompactionScheduler.start();
+
         if(log.isDebugEnabled()){
             log.debug("ApplicationManagementServiceComponent activated");
         }
@@ -39,6 +48,13 @@ public class ApplicationManagementServiceComponent {
 
     protected void deactivate(org.osgi.service.component.ComponentContext context) {
 
+        DeploymentPipeline.getInstance().shutdown();
+        EventCompactionScheduler.shutdown();
+        DockerClient.closeAllClients();
+        DeploymentMetrics.unregisterAll();
+        DBUtil.shutdownConnectionTracker();
+        ApplicationCache.invalidateAll();
+
         if(log.isDebugEnabled()){
             log.debug("ApplicationManagementServiceComponent deactivated");
         }
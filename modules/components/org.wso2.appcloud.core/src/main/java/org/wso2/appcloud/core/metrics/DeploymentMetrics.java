@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.deployment.DeploymentJob;
+import org.wso2.appcloud.core.deployment.DeploymentStage;
+import org.wso2.carbon.context.CarbonContext;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the deployment stage metrics. Metrics are kept per stage and runtime, and each of them is registered as
+ * an MBean named org.wso2.appcloud:type=DeploymentMetrics,stage=..,runtime=.. Tenants are not a part of the key, so
+ * that the number of MBeans does not grow with the tenants, instead the tenant is logged with each execution.
+ */
+public class DeploymentMetrics {
+
+    private static final Log log = LogFactory.getLog(DeploymentMetrics.class);
+
+    public static final String JMX_DOMAIN = "org.wso2.appcloud";
+    public static final String JMX_TYPE = "DeploymentMetrics";
+    public static final String UNKNOWN = "unknown";
+
+    private static final ConcurrentMap<String, StageMetrics> stageMetrics = new ConcurrentHashMap<>();
+
+    private DeploymentMetrics() {
+    }
+
+    /**
+     * Start timing an execution of a stage.
+     *
+     * @param stage   name of the stage
+     * @param runtime runtime of the application, e.g. wso2as
+     * @param tenant  tenant domain, which is logged with the execution
+     * @return timer which has to be stopped when the stage completes
+     */
+    public static StageTimer startTimer(String stage, String runtime, String tenant) {
+        return new StageTimer(getStageMetrics(stage, runtime), tenant != null ? tenant : UNKNOWN);
+    }
+
+    /**
+     * Start timing an execution of a stage for the tenant of the current carbon context.
+     *
+     * @param stage   name of the stage
+     * @param runtime runtime of the application, e.g. wso2as
+     * @return timer which has to be stopped when the stage completes
+     */
+    public static StageTimer startTimer(String stage, String runtime) {
+        return startTimer(stage, runtime, CarbonContext.getThreadLocalCarbonContext().getTenantDomain());
+    }
+
+    /**
+     * Get the metrics of a stage, registering them on first use.
+     *
+     * @param stage   name of the stage
+     * @param runtime runtime of the application, e.g. wso2as
+     * @return metrics of the stage
+     */
+    public static StageMetrics getStageMetrics(String stage, String runtime) {
+        runtime = runtime != null ? runtime : UNKNOWN;
+        String key = stage + "/" + runtime;
+        StageMetrics metrics = stageMetrics.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        metrics = new StageMetrics(stage, runtime);
+        StageMetrics existingMetrics = stageMetrics.putIfAbsent(key, metrics);
+        if (existingMetrics != null) {
+            return existingMetrics;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, getObjectName(metrics));
+        } catch (JMException e) {
+            // metrics are still recorded, they are only not visible through JMX
+            log.warn("Could not register metrics of stage : " + stage + " for runtime : " + runtime, e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Wrap deployment stages so that each execution of them is timed.
+     *
+     * @param stages  stages to be timed
+     * @param runtime runtime of the application, e.g. wso2as
+     * @param tenant  tenant domain, which is logged with each execution
+     * @return timed stages
+     */
+    public static List<DeploymentStage> instrument(List<DeploymentStage> stages, final String runtime,
+            final String tenant) {
+
+        List<DeploymentStage> timedStages = new ArrayList<>(stages.size());
+        for (final DeploymentStage stage : stages) {
+            timedStages.add(new DeploymentStage() {
+                @Override
+                public String getName() {
+                    return stage.getName();
+                }
+
+                @Override
+                public boolean execute(DeploymentJob job) throws AppCloudException {
+                    StageTimer timer = startTimer(stage.getName(), runtime, tenant);
+                    boolean proceed = false;
+                    try {
+                        proceed = stage.execute(job);
+                        return proceed;
+                    } finally {
+                        if (proceed) {
+                            timer.success();
+                        } else {
+                            timer.failure();
+                        }
+                    }
+                }
+            });
+        }
+        return timedStages;
+    }
+
+    /**
+     * Unregister all the stage metrics from the MBean server.
+     */
+    public static void unregisterAll() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (String key : stageMetrics.keySet()) {
+            StageMetrics metrics = stageMetrics.remove(key);
+            if (metrics == null) {
+                continue;
+            }
+            try {
+                ObjectName objectName = getObjectName(metrics);
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                log.warn("Could not unregister metrics of stage : " + metrics.getStage() + " for runtime : "
+                        + metrics.getRuntime(), e);
+            }
+        }
+    }
+
+    private static ObjectName getObjectName(StageMetrics metrics) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=" + JMX_TYPE + ",stage=" + ObjectName.quote(metrics.getStage())
+                + ",runtime=" + ObjectName.quote(metrics.getRuntime()));
+    }
+}
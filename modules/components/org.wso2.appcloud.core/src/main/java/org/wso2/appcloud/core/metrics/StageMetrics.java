@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of a deployment stage for a single runtime. Latencies are recorded in a fixed bucket histogram,
+ * so recording is lock free and the memory used does not grow with the number of executions.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+
+    private static final long[] LATENCY_BUCKET_BOUNDS = {100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 120000,
+            300000, 600000, Long.MAX_VALUE};
+
+    private final String stage;
+    private final String runtime;
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_BOUNDS.length);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    StageMetrics(String stage, String runtime) {
+        this.stage = stage;
+        this.runtime = runtime;
+    }
+
+    void started() {
+        inFlightCount.incrementAndGet();
+    }
+
+    void completed(long latency, boolean success) {
+        inFlightCount.decrementAndGet();
+        count.incrementAndGet();
+        if (!success) {
+            failureCount.incrementAndGet();
+        }
+        totalLatency.addAndGet(latency);
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS.length; i++) {
+            if (latency <= LATENCY_BUCKET_BOUNDS[i]) {
+                latencyBuckets.incrementAndGet(i);
+                break;
+            }
+        }
+    }
+
+    void addBytes(long transferredBytes) {
+        bytes.addAndGet(transferredBytes);
+    }
+
+    @Override
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public String getRuntime() {
+        return runtime;
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public double getMeanLatency() {
+        long completedCount = count.get();
+        return completedCount == 0 ? 0 : (double) totalLatency.get() / completedCount;
+    }
+
+    @Override
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    @Override
+    public long getLatency50thPercentile() {
+        return getLatencyPercentile(0.5);
+    }
+
+    @Override
+    public long getLatency95thPercentile() {
+        return getLatencyPercentile(0.95);
+    }
+
+    @Override
+    public long getLatency99thPercentile() {
+        return getLatencyPercentile(0.99);
+    }
+
+    @Override
+    public long[] getLatencyBucketBounds() {
+        return LATENCY_BUCKET_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getLatencyBucketCounts() {
+        long[] counts = new long[latencyBuckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyBuckets.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            latencyBuckets.set(i, 0);
+        }
+        count.set(0);
+        failureCount.set(0);
+        bytes.set(0);
+        totalLatency.set(0);
+        maxLatency.set(0);
+    }
+
+    private long getLatencyPercentile(double percentile) {
+        long[] counts = getLatencyBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                // the last bucket has no upper bound, hence the max latency is the best estimate
+                return i == counts.length - 1 ? maxLatency.get() : LATENCY_BUCKET_BOUNDS[i];
+            }
+        }
+        return maxLatency.get();
+    }
+}
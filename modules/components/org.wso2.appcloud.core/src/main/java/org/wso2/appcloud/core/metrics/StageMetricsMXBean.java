@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.metrics;
+
+/**
+ * JMX view of the metrics of a deployment stage, for a single runtime. Latencies are in milliseconds.
+ */
+public interface StageMetricsMXBean {
+
+    String getStage();
+
+    String getRuntime();
+
+    /**
+     * @return number of completed executions of the stage, including the failed ones
+     */
+    long getCount();
+
+    long getFailureCount();
+
+    /**
+     * @return number of executions of the stage currently running
+     */
+    int getInFlightCount();
+
+    /**
+     * @return number of bytes transferred by the stage, e.g. bytes pushed to the docker registry
+     */
+    long getBytes();
+
+    double getMeanLatency();
+
+    long getMaxLatency();
+
+    /**
+     * Percentiles are estimated from the latency histogram, hence they are the upper bound of the bucket the
+     * percentile falls into.
+     */
+    long getLatency50thPercentile();
+
+    long getLatency95thPercentile();
+
+    long getLatency99thPercentile();
+
+    /**
+     * @return upper bounds of the latency histogram buckets, the last bucket has no upper bound
+     */
+    long[] getLatencyBucketBounds();
+
+    /**
+     * @return number of executions in each latency histogram bucket
+     */
+    long[] getLatencyBucketCounts();
+
+    /**
+     * Reset all the counters except the in flight count.
+     */
+    void reset();
+}
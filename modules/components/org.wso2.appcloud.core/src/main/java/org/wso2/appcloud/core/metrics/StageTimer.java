@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times a single execution of a deployment stage. Only the first call to {@link #success()} or {@link #failure()}
+ * is recorded, so a timer can be stopped safely from both a completion callback and an error path.
+ */
+public class StageTimer {
+
+    private static final Log log = LogFactory.getLog(StageTimer.class);
+
+    private final StageMetrics metrics;
+    private final String tenant;
+    private final long startTime = System.nanoTime();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    StageTimer(StageMetrics metrics, String tenant) {
+        this.metrics = metrics;
+        this.tenant = tenant;
+        metrics.started();
+    }
+
+    /**
+     * Record bytes transferred by the stage execution.
+     *
+     * @param bytes number of bytes
+     */
+    public void addBytes(long bytes) {
+        metrics.addBytes(bytes);
+    }
+
+    /**
+     * Stop the timer and record a successful execution.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long success() {
+        return stop(true);
+    }
+
+    /**
+     * Stop the timer and record a failed execution.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long failure() {
+        return stop(false);
+    }
+
+    private long stop(boolean success) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (stopped.compareAndSet(false, true)) {
+            metrics.completed(elapsed, success);
+            if (log.isDebugEnabled()) {
+                log.debug("Stage : " + metrics.getStage() + " for runtime : " + metrics.getRuntime() + " in tenant : "
+                        + tenant + (success ? " completed" : " failed") + " in " + elapsed + " milliseconds");
+            }
+        }
+        return elapsed;
+    }
+}
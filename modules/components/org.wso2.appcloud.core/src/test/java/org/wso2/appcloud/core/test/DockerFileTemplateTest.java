@@ -0,0 +1,209 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.core.test;
+
+import org.testng.Assert;
+import org.testng.annotations.*;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.docker.DockerFileTemplate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class DockerFileTemplateTest {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final Set<String> OPTIONAL_PLACEHOLDERS =
+            new HashSet<>(Arrays.asList("ENABLE_TAIL_LOG", "ENABLE_JFR"));
+
+    private File templateFile;
+
+    @BeforeMethod
+    public void createTemplateFile() throws IOException {
+        DockerFileTemplate.clearCache();
+        templateFile = File.createTempFile("Dockerfile", ".template");
+        templateFile.deleteOnExit();
+    }
+
+    @AfterMethod
+    public void deleteTemplateFile() {
+        templateFile.delete();
+    }
+
+    /**
+     * Test rendering a template with placeholders in every supported position.
+     */
+    @Test(description = "Test rendering placeholders of a docker template")
+    public void testRender() throws AppCloudException {
+        DockerFileTemplate template = DockerFileTemplate.getTemplate(getFixturePath());
+        Assert.assertEquals(template.getPlaceholderNames(), new HashSet<>(
+                Arrays.asList("BASE_IMAGE", "ARTIFACT_NAME", "VAL_TOTAL_MEMORY", "ENABLE_TAIL_LOG", "HOST_NAME")));
+
+        Map<String, String> values = new HashMap<>();
+        values.put("BASE_IMAGE", "wso2/base");
+        values.put("ARTIFACT_NAME", "app.war");
+        values.put("VAL_TOTAL_MEMORY", "512");
+        values.put("HOST_NAME", "app.example.com");
+        StringWriter writer = new StringWriter();
+        template.render(values, OPTIONAL_PLACEHOLDERS, writer);
+
+        // the comment, the instruction keywords and the ENV variable names are left as they are, the first word of
+        // a continuation line is replaced and the optional placeholder without a value is kept
+        String expected = lines(
+                "# Test template for ARTIFACT_NAME placeholders",
+                "FROM wso2/base",
+                "",
+                "ENV ARTIFACT_NAME app.war",
+                "ENV TOTAL_MEMORY 512",
+                "ENV TAIL_LOG ENABLE_TAIL_LOG",
+                "",
+                "COPY app.war /opt/apps/",
+                "RUN echo app.war \\",
+                "    app.example.com",
+                "CMD [\"bash\", \"-c\", \"source /init.sh\"]");
+        Assert.assertEquals(writer.toString(), expected);
+    }
+
+    /**
+     * Test that nothing is written when a required placeholder has no value.
+     */
+    @Test(description = "Test rendering a docker template with an unresolved placeholder")
+    public void testRenderUnresolvedPlaceholder() throws AppCloudException {
+        DockerFileTemplate template = DockerFileTemplate.getTemplate(getFixturePath());
+        Map<String, String> values = new HashMap<>();
+        values.put("BASE_IMAGE", "wso2/base");
+        values.put("ARTIFACT_NAME", "app.war");
+        values.put("VAL_TOTAL_MEMORY", "512");
+        StringWriter writer = new StringWriter();
+        try {
+            template.render(values, OPTIONAL_PLACEHOLDERS, writer);
+            Assert.fail("Rendering should fail as HOST_NAME has no value");
+        } catch (AppCloudException e) {
+            Assert.assertTrue(e.getMessage().contains("HOST_NAME"), e.getMessage());
+        }
+        Assert.assertEquals(writer.toString(), "");
+    }
+
+    /**
+     * Test that a cached template is recompiled when the size or the modification time of the file changes.
+     */
+    @Test(description = "Test recompiling a modified docker template")
+    public void testRecompileModifiedTemplate() throws IOException, AppCloudException {
+        String templatePath = templateFile.getPath();
+        writeTemplate("COPY ARTIFACT_NAME /opt/apps/");
+        long lastModified = templateFile.lastModified();
+        DockerFileTemplate template = DockerFileTemplate.getTemplate(templatePath);
+        Assert.assertEquals(template.getPlaceholderNames(), Collections.singleton("ARTIFACT_NAME"));
+        Assert.assertSame(DockerFileTemplate.getTemplate(templatePath), template);
+
+        // same modification time, different size
+        writeTemplate("COPY ARTIFACT_NAME HOST_NAME");
+        Assert.assertTrue(templateFile.setLastModified(lastModified));
+        template = DockerFileTemplate.getTemplate(templatePath);
+        Assert.assertEquals(template.getPlaceholderNames(),
+                new HashSet<>(Arrays.asList("ARTIFACT_NAME", "HOST_NAME")));
+
+        // same size, different modification time
+        writeTemplate("COPY ARTIFACT_NAME APP_HOMES");
+        Assert.assertTrue(templateFile.setLastModified(lastModified + 2000));
+        template = DockerFileTemplate.getTemplate(templatePath);
+        Assert.assertEquals(template.getPlaceholderNames(),
+                new HashSet<>(Arrays.asList("ARTIFACT_NAME", "APP_HOMES")));
+    }
+
+    /**
+     * Test that every docker template resolves with the properties supplied by the application creation flows.
+     */
+    @Test(description = "Test resolving the placeholders of the shipped docker templates")
+    public void testShippedTemplates() throws AppCloudException {
+        File dockerFilesDir = new File(System.getProperty("dockerfiles.dir", "../../resources/dockerfiles"));
+        Assert.assertTrue(dockerFilesDir.isDirectory(), "Docker templates not found in " + dockerFilesDir);
+
+        // keys put into the docker file property map by application.jag, github/application.jag, the ESB
+        // setDockerEnvironmentVariables of appTypeUtil.jag and customDockerImages.jag
+        Map<String, String> uploadValues = values("ARTIFACT_NAME", "HOST_NAME", "ARTIFACT_URL", "VAL_TOTAL_MEMORY",
+                "ARTIFACT_DIR");
+        Map<String, String> gitHubValues = values("GIT_REPO_URL", "GIT_REPO_BRANCH", "PROJECT_ROOT", "HOST_NAME",
+                "VAL_TOTAL_MEMORY");
+        Map<String, String> esbValues = values("TENANT_ID_VAL", "TENANT_DOMAIN_VAL");
+        Map<String, String> customValues = values("CUSTOM_DOCKER_IMAGE_URL_VALUE", "IMAGE_TAG_VALUE",
+                "APPCLOUD_URL_VALUE", "ADMIN_USERNAME_VALUE", "ADMIN_PASSWORD_VALUE");
+
+        int templateCount = 0;
+        for (File runtimeDir : dockerFilesDir.listFiles()) {
+            for (String category : new String[] { "default", "url", "github" }) {
+                File[] templateFiles = new File(runtimeDir, category).listFiles();
+                if (templateFiles == null) {
+                    continue;
+                }
+                for (File file : templateFiles) {
+                    Map<String, String> values = new HashMap<>();
+                    if ("custom".equals(runtimeDir.getName())) {
+                        values.putAll(customValues);
+                    } else if ("github".equals(category)) {
+                        values.putAll(gitHubValues);
+                    } else {
+                        values.putAll(uploadValues);
+                        if ("wso2esb".equals(runtimeDir.getName())) {
+                            values.putAll(esbValues);
+                        }
+                    }
+                    DockerFileTemplate.getTemplate(file.getPath()).validate(values, OPTIONAL_PLACEHOLDERS);
+                    templateCount++;
+                }
+            }
+        }
+        Assert.assertTrue(templateCount > 0, "No docker templates found in " + dockerFilesDir);
+    }
+
+    private String getFixturePath() {
+        return getClass().getResource("/Dockerfile.test").getPath();
+    }
+
+    private void writeTemplate(String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(templateFile), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    private static Map<String, String> values(String... keys) {
+        Map<String, String> values = new HashMap<>();
+        for (String key : keys) {
+            values.put(key, key.toLowerCase());
+        }
+        return values;
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(LINE_SEPARATOR);
+        }
+        return builder.toString();
+    }
+}
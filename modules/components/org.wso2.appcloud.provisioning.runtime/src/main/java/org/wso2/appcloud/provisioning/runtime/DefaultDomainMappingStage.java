@@ -0,0 +1,91 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.appcloud.provisioning.runtime;
+
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.ApplicationManager;
+import org.wso2.appcloud.core.deployment.DeploymentJob;
+import org.wso2.appcloud.core.deployment.DeploymentStage;
+import org.wso2.appcloud.provisioning.runtime.beans.ApplicationContext;
+import org.wso2.appcloud.provisioning.runtime.beans.ServiceProxy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deployment stage mapping the default domain of an application to a version, by creating the default domain services
+ * of the version and making it the default version. The custom domain of the application is moved to the new services.
+ */
+public class DefaultDomainMappingStage implements DeploymentStage {
+
+    public static final String STAGE_NAME = "Mapping default domain";
+
+    private final ApplicationContext applicationContext;
+    private final String applicationHashId;
+    private final List<ServiceProxy> serviceProxies;
+    private final List<String> existingServiceNames;
+    private final String customDomain;
+
+    /**
+     * @param applicationContext   application context of the version to be mapped
+     * @param applicationHashId    application hash id
+     * @param serviceProxies       default domain services of the version
+     * @param existingServiceNames default domain services of the previous default version, which are deleted
+     * @param customDomain         custom domain of the application or null if there is none
+     */
+    public DefaultDomainMappingStage(ApplicationContext applicationContext, String applicationHashId,
+            List<ServiceProxy> serviceProxies, List<String> existingServiceNames, String customDomain) {
+        this.applicationContext = applicationContext;
+        this.applicationHashId = applicationHashId;
+        this.serviceProxies = new ArrayList<>(serviceProxies);
+        this.existingServiceNames = new ArrayList<>(existingServiceNames);
+        this.customDomain = customDomain;
+    }
+
+    @Override
+    public String getName() {
+        return STAGE_NAME;
+    }
+
+    @Override
+    public boolean execute(DeploymentJob job) throws AppCloudException {
+        try {
+            KubernetesRuntimeProvisioningService provisioningService =
+                    new KubernetesRuntimeProvisioningService(applicationContext);
+            for (String serviceName : existingServiceNames) {
+                provisioningService.deleteK8sKindByName(KubernetesPovisioningConstants.KIND_SERVICE, serviceName);
+            }
+            List<String> serviceNames = new ArrayList<>();
+            for (ServiceProxy serviceProxy : serviceProxies) {
+                provisioningService.createService(serviceProxy);
+                serviceNames.add(serviceProxy.getServiceName());
+            }
+            ApplicationManager.updateDefaultVersion(applicationHashId, applicationContext.getVersion());
+            if (customDomain != null && !serviceNames.isEmpty()) {
+                provisioningService.patchServiceMetadata(serviceNames,
+                        Collections.singletonMap(KubernetesPovisioningConstants.LABEL_KEY_CUSTOM_DOMAIN, customDomain),
+                        Collections.<String, String>emptyMap());
+            }
+        } catch (RuntimeProvisioningException e) {
+            throw new AppCloudException("Error while mapping the default domain of application : "
+                    + applicationHashId + " to version : " + applicationContext.getVersionHashId(), e);
+        }
+        return true;
+    }
+}
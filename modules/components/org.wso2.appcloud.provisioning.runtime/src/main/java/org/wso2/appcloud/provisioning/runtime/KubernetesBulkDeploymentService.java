@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesProvisioningUtils;
+import org.wso2.appcloud.provisioning.runtime.beans.ApplicationContext;
+import org.wso2.appcloud.provisioning.runtime.beans.BulkDeploymentRequest;
+import org.wso2.appcloud.provisioning.runtime.beans.BulkDeploymentResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deploys many application versions at once, e.g. when redeploying the applications of all the tenants after a
+ * platform upgrade. Versions are deployed concurrently by a bounded number of threads, and a failure of a version does
+ * not stop the deployment of the others.
+ */
+public class KubernetesBulkDeploymentService {
+
+    private static final Log log = LogFactory.getLog(KubernetesBulkDeploymentService.class);
+
+    private final int parallelism;
+
+    public KubernetesBulkDeploymentService() {
+        this(KubernetesProvisioningUtils.getIntPropertyValue(KubernetesPovisioningConstants.BULK_DEPLOY_PARALLELISM,
+                KubernetesPovisioningConstants.DEFAULT_BULK_DEPLOY_PARALLELISM));
+    }
+
+    /**
+     * @param parallelism maximum number of versions deployed at a time
+     */
+    public KubernetesBulkDeploymentService(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : 1;
+    }
+
+    /**
+     * Deploy the given application versions and wait until all of them are processed.
+     *
+     * @param requests deployments of application versions
+     * @return result of each deployment, in the order of the requests
+     */
+    public List<BulkDeploymentResult> deployApplications(List<BulkDeploymentRequest> requests) {
+        List<BulkDeploymentResult> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, requests.size()),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "kubernetes-bulk-deployment-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        List<Future<BulkDeploymentResult>> futures = new ArrayList<>(requests.size());
+        try {
+            for (final BulkDeploymentRequest request : requests) {
+                futures.add(executor.submit(new Callable<BulkDeploymentResult>() {
+                    @Override
+                    public BulkDeploymentResult call() {
+                        return deploy(request);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(requests.get(i), futures.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int deployedCount = 0;
+        for (BulkDeploymentResult result : results) {
+            if (result.isDeployed()) {
+                deployedCount++;
+            }
+        }
+        log.info("Deployed " + deployedCount + " of " + requests.size() + " application versions in "
+                + (System.currentTimeMillis() - startTime) + " milliseconds with parallelism: " + parallelism);
+        return results;
+    }
+
+    private BulkDeploymentResult getResult(BulkDeploymentRequest request, Future<BulkDeploymentResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return failed(request, "Error while deploying application version: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return failed(request, "Interrupted while deploying application version");
+        }
+    }
+
+    private BulkDeploymentResult deploy(BulkDeploymentRequest request) {
+        ApplicationContext applicationContext = request.getApplicationContext();
+        String versionHashId = applicationContext.getVersionHashId();
+        BulkDeploymentResult result = new BulkDeploymentResult();
+        result.setVersionHashId(versionHashId);
+        try {
+            KubernetesRuntimeProvisioningService provisioningService =
+                    new KubernetesRuntimeProvisioningService(applicationContext, request.getResourceQuotaLimit());
+            if (request.isRedeploy() && !provisioningService.deleteDeployment()) {
+                return failed(request, "Error while deleting the existing deployment of application version");
+            }
+            result.setServiceNames(provisioningService.deployApplication(request.getDeploymentConfig()));
+            result.setDeployed(true);
+            if (log.isDebugEnabled()) {
+                log.debug("Deployed application version: " + versionHashId + " with services: "
+                        + result.getServiceNames());
+            }
+            if (request.getPodRunningTimeout() > 0) {
+                Integer replicas = request.getDeploymentConfig().getReplicas();
+                result.setRunning(KubernetesProvisioningUtils.waitForPodsToBeRunning(applicationContext,
+                        replicas != null ? replicas : 1, request.getPodRunningTimeout()).get());
+            }
+        } catch (RuntimeProvisioningException e) {
+            log.error("Error while deploying application version: " + versionHashId, e);
+            result.setErrorMessage(e.getMessage());
+        } catch (KubernetesClientException e) {
+            log.error("Error while deploying application version: " + versionHashId, e);
+            result.setErrorMessage(e.getMessage());
+        } catch (ExecutionException e) {
+            log.warn("Pods of application version: " + versionHashId + " are not running: "
+                    + e.getCause().getMessage());
+            result.setErrorMessage(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setErrorMessage("Interrupted while waiting for the pods of application version");
+        }
+        return result;
+    }
+
+    private static BulkDeploymentResult failed(BulkDeploymentRequest request, String errorMessage) {
+        BulkDeploymentResult result = new BulkDeploymentResult();
+        result.setVersionHashId(request.getApplicationContext().getVersionHashId());
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+}
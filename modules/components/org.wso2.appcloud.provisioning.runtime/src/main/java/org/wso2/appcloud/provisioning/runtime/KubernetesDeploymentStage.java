@@ -0,0 +1,120 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+
+package org.wso2.appcloud.provisioning.runtime;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.AppCloudConstant;
+import org.wso2.appcloud.common.AppCloudException;
+import org.wso2.appcloud.core.ApplicationManager;
+import org.wso2.appcloud.core.EventsManager;
+import org.wso2.appcloud.core.deployment.DeploymentJob;
+import org.wso2.appcloud.core.deployment.DeploymentPipeline;
+import org.wso2.appcloud.core.deployment.DeploymentStage;
+import org.wso2.appcloud.core.dto.Event;
+import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesProvisioningUtils;
+import org.wso2.appcloud.provisioning.runtime.beans.ApplicationContext;
+import org.wso2.appcloud.provisioning.runtime.beans.DeploymentConfig;
+import org.wso2.appcloud.provisioning.runtime.beans.ResourceQuotaLimit;
+
+import java.sql.Timestamp;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Deployment stage deploying an application version in Kubernetes and waiting until its pods are running. The version
+ * is marked as running when the pods are running within the timeout, otherwise the deployment job is stopped. The pod
+ * status is recorded as a separate event, which the application creation progress page waits for.
+ */
+public class KubernetesDeploymentStage implements DeploymentStage {
+
+    private static final Log log = LogFactory.getLog(KubernetesDeploymentStage.class);
+
+    public static final String STAGE_NAME = "Initializing deployment";
+    public static final String POD_STATUS_EVENT = "Status";
+
+    private final ApplicationContext applicationContext;
+    private final ResourceQuotaLimit resourceQuotaLimit;
+    private final DeploymentConfig deploymentConfig;
+    private final long podRunningTimeout;
+    private final EventsManager eventsManager = new EventsManager();
+
+    /**
+     * @param applicationContext application context of the version
+     * @param resourceQuotaLimit resource quota of the version
+     * @param deploymentConfig   deployment of the version
+     * @param podRunningTimeout  time in milliseconds to wait for the pods to be running
+     */
+    public KubernetesDeploymentStage(ApplicationContext applicationContext, ResourceQuotaLimit resourceQuotaLimit,
+            DeploymentConfig deploymentConfig, long podRunningTimeout) {
+        this.applicationContext = applicationContext;
+        this.resourceQuotaLimit = resourceQuotaLimit;
+        this.deploymentConfig = deploymentConfig;
+        this.podRunningTimeout = podRunningTimeout;
+    }
+
+    @Override
+    public String getName() {
+        return STAGE_NAME;
+    }
+
+    @Override
+    public boolean execute(DeploymentJob job) throws AppCloudException {
+        String versionHashId = applicationContext.getVersionHashId();
+        Integer replicas = deploymentConfig.getReplicas();
+        boolean running;
+        try {
+            new KubernetesRuntimeProvisioningService(applicationContext, resourceQuotaLimit)
+                    .deployApplication(deploymentConfig);
+            addPodStatusEvent(DeploymentPipeline.EVENT_STATUS_PENDING, "Pending");
+            running = KubernetesProvisioningUtils.waitForPodsToBeRunning(applicationContext,
+                    replicas != null ? replicas : 1, podRunningTimeout).get();
+        } catch (RuntimeProvisioningException e) {
+            throw new AppCloudException("Error while deploying application version : " + versionHashId, e);
+        } catch (KubernetesClientException e) {
+            throw new AppCloudException("Error while deploying application version : " + versionHashId, e);
+        } catch (ExecutionException e) {
+            log.warn("Error while waiting for the pods of application version : " + versionHashId
+                    + " to be running", e.getCause());
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppCloudException("Interrupted while waiting for the pods of application version : "
+                    + versionHashId, e);
+        }
+        if (!running) {
+            log.warn("Pods of application version : " + versionHashId + " are not running even after "
+                    + podRunningTimeout + " milliseconds");
+            addPodStatusEvent(DeploymentPipeline.EVENT_STATUS_FAILED,
+                    KubernetesProvisioningUtils.getPodStatus(applicationContext));
+            return false;
+        }
+        ApplicationManager.updateVersionStatus(versionHashId, AppCloudConstant.VERSION_STATUS_RUNNING);
+        addPodStatusEvent(DeploymentPipeline.EVENT_STATUS_SUCCEEDED, "Running");
+        return true;
+    }
+
+    private void addPodStatusEvent(String status, String description) throws AppCloudException {
+        Event event = new Event();
+        event.setEventName(POD_STATUS_EVENT);
+        event.setEventStatus(status);
+        event.setTimestamp(new Timestamp(System.currentTimeMillis()));
+        event.setEventDescription(description);
+        eventsManager.addAppCreationEvent(applicationContext.getVersionHashId(), event);
+    }
+}
@@ -27,9 +27,17 @@ public class KubernetesPovisioningConstants {
     public static String PROPERTY_MASTER_USERNAME = "KubernetesClusterConfig.UserName";
     public static String PROPERTY_MASTER_PASSWORD = "KubernetesClusterConfig.Password";
 
+    public static final String PROPERTY_KUB_CONNECTION_TIMEOUT = "KubernetesClusterConfig.ConnectionTimeout";
+    public static final String PROPERTY_KUB_REQUEST_TIMEOUT = "KubernetesClusterConfig.RequestTimeout";
+    public static final String PROPERTY_KUB_WATCH_RECONNECT_INTERVAL = "KubernetesClusterConfig.WatchReconnectInterval";
+
     public static final String INGRESS_API_NAMESPACE_RESOURCE_PATH = "apis/extensions/v1beta1/namespaces/";
     public static final String INGRESS_API_RESOURCE_PATH_SUFFIX = "/ingresses/";
     public static final String MIME_TYPE_JSON = "application/json";
+    public static final String MIME_TYPE_MERGE_PATCH_JSON = "application/merge-patch+json";
+    public static final String CORE_API_NAMESPACE_RESOURCE_PATH = "api/v1/namespaces/";
+    public static final String SERVICE_API_RESOURCE_PATH_SUFFIX = "/services/";
+    public static final String DEPLOYMENT_API_RESOURCE_PATH_SUFFIX = "/deployments/";
 
     public static final String KIND_NAMESPACE = "Namespace";
     public static final String KIND_DEPLOYMENT = "Deployment";
@@ -50,8 +58,10 @@ public class KubernetesPovisioningConstants {
     public static final String DEFAULT_INGRESS_PATH = "/";
 
     public static final String ANNOTATION_KEY_HOST = "serviceloadbalancer/lb.host";
+    public static final String ANNOTATION_KEY_UPDATED_TIME = "appcloud/updated-time";
     public static final String ANNOTATION_KEY_SSL_TERM = "serviceloadbalancer/lb.sslTerm";
     public static final String ANNOTATION_VALUE_SSL_TERM = "true";
+    public static final String LABEL_KEY_CUSTOM_DOMAIN = "customDomain";
     public static final String SERVICE_SESSION_AFFINITY_MODE = "ClientIP";
     public static final int HTTPS_SERVICE_PORT = 443;
 
@@ -75,4 +85,30 @@ public class KubernetesPovisioningConstants {
     public static final String SECRET_DELETE_TIMEOUT = "Secret.Delete.Timeout";
     public static final String SECRET_DELETE_WAIT = "Secret.Delete.Wait";
 
+    public static final String RESOURCES_DELETE_TIMEOUT = "Resources.Delete.Timeout";
+    public static final int DEFAULT_RESOURCES_DELETE_TIMEOUT = 120000;
+
+    public static final String NAMESPACE_DELETE_RETRY_INTERVAL = "Namespace.Delete.RetryInterval";
+    public static final int DEFAULT_NAMESPACE_DELETE_RETRY_INTERVAL = 2000;
+    public static final String NAMESPACE_DELETE_RETRIES = "Namespace.Delete.Retries";
+    public static final int DEFAULT_NAMESPACE_DELETE_RETRIES = 3;
+
+    public static final String INFORMER_CACHE_ENABLED = "Kubernetes.InformerCache.Enabled";
+    public static final String INFORMER_CACHE_IDLE_TIMEOUT = "Kubernetes.InformerCache.IdleTimeout";
+    public static final int DEFAULT_INFORMER_CACHE_IDLE_TIMEOUT = 600000;
+    public static final String INFORMER_CACHE_MAX_AGE = "Kubernetes.InformerCache.MaxAge";
+    public static final int DEFAULT_INFORMER_CACHE_MAX_AGE = 1800000;
+    public static final String INFORMER_CACHE_MAX_INFORMERS = "Kubernetes.InformerCache.MaxInformers";
+    public static final int DEFAULT_INFORMER_CACHE_MAX_INFORMERS = 1000;
+    public static final String INFORMER_CACHE_WRITE_BYPASS = "Kubernetes.InformerCache.WriteBypass";
+    public static final int DEFAULT_INFORMER_CACHE_WRITE_BYPASS = 10000;
+
+    public static final String BULK_DEPLOY_PARALLELISM = "Kubernetes.BulkDeploy.Parallelism";
+    public static final int DEFAULT_BULK_DEPLOY_PARALLELISM = 10;
+
+    public static final String ROLLING_UPDATE_MAX_SURGE = "Kubernetes.RollingUpdate.MaxSurge";
+    public static final String DEFAULT_ROLLING_UPDATE_MAX_SURGE = "1";
+    public static final String ROLLING_UPDATE_MAX_UNAVAILABLE = "Kubernetes.RollingUpdate.MaxUnavailable";
+    public static final String DEFAULT_ROLLING_UPDATE_MAX_UNAVAILABLE = "0";
+
 }
\ No newline at end of file
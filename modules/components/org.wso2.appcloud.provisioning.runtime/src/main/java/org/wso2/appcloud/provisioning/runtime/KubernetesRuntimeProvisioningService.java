@@ -16,6 +16,7 @@
 
 package org.wso2.appcloud.provisioning.runtime;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.extensions.*;
@@ -28,13 +29,18 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.wso2.appcloud.common.util.AppCloudUtil;
 import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesProvisioningUtils;
+import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesResourceCache;
+import org.wso2.appcloud.provisioning.runtime.Utils.NamespaceRegistry;
 import org.wso2.appcloud.provisioning.runtime.beans.*;
 import org.wso2.appcloud.provisioning.runtime.beans.Container;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * This class will implement the runtime provisioning service specific to Kubernetes.
@@ -52,24 +58,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
         this.resourceQuotaLimit = resourceQuotaLimit;
 
         //Creating namespace in kubernetes if not available
-        AutoAdaptableKubernetesClient kubernetesClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        NamespaceList namespaceList = kubernetesClient.namespaces().list();
-        boolean isNamespaceExists = false;
-        for (Namespace ns : namespaceList.getItems()) {
-            if (ns.getMetadata().getName().equals(this.namespace.getMetadata().getName())) {
-                isNamespaceExists = true;
-                if (log.isDebugEnabled()) {
-                    log.debug("Namespace found: " + ns.getMetadata().getName());
-                }
-                break;
-            }
-        }
-        if (!isNamespaceExists) {
-            if (log.isDebugEnabled()) {
-                log.debug("Namespace not available hence creating namespace: " + namespace.getMetadata().getName());
-            }
-            kubernetesClient.namespaces().create(namespace);
-        }
+        NamespaceRegistry.ensureNamespace(namespace);
     }
 
     public KubernetesRuntimeProvisioningService(ApplicationContext applicationContext) {
@@ -77,24 +66,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
         this.namespace = KubernetesProvisioningUtils.getNameSpace(applicationContext);
 
         //Creating namespace in kubernetes if not available
-        AutoAdaptableKubernetesClient kubernetesClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        NamespaceList namespaceList = kubernetesClient.namespaces().list();
-        boolean isNamespaceExists = false;
-        for (Namespace ns : namespaceList.getItems()) {
-            if (ns.getMetadata().getName().equals(this.namespace.getMetadata().getName())) {
-                isNamespaceExists = true;
-                if (log.isDebugEnabled()) {
-                    log.debug("Namespace found: " + ns.getMetadata().getName());
-                }
-                break;
-            }
-        }
-        if (!isNamespaceExists) {
-            if (log.isDebugEnabled()) {
-                log.debug("Namespace not available hence creating namespace: " + namespace.getMetadata().getName());
-            }
-            kubernetesClient.namespaces().create(namespace);
-        }
+        NamespaceRegistry.ensureNamespace(namespace);
     }
 
     @Override
@@ -105,9 +77,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
 
     @Override
     public void createOrganization(TenantInfo tenantInfo) throws RuntimeProvisioningException {
-        AutoAdaptableKubernetesClient kubernetesClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        kubernetesClient.namespaces().create(this.namespace);
-        kubernetesClient.close();
+        NamespaceRegistry.ensureNamespace(this.namespace);
     }
 
     @Override
@@ -119,7 +89,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     public void deleteOrganization(TenantInfo tenantInfo) throws RuntimeProvisioningException {
         AutoAdaptableKubernetesClient kubernetesClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
         kubernetesClient.namespaces().delete(this.namespace);
-        kubernetesClient.close();
+        NamespaceRegistry.forget(this.namespace.getMetadata().getName());
     }
 
     @Override
@@ -140,73 +110,11 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
 
         AutoAdaptableKubernetesClient kubClient = null;
         List<Container> containers = config.getContainers();
-        ArrayList<io.fabric8.kubernetes.api.model.Container> kubContainerList = new ArrayList<>();
         List<String> serviceNameList = new ArrayList<>();
-        String cpuLimitInt = resourceQuotaLimit.getCpuLimit();
-        String cpuLimit = cpuLimitInt.concat("m");
-        String cpuRequest = resourceQuotaLimit.getCpuRequest().concat("m");
-        String memoryLimitInt = resourceQuotaLimit.getMemoryLimit();
-        String memoryLimit = memoryLimitInt.concat("Mi");
-        String memoryRequest = resourceQuotaLimit.getMemoryRequest().concat("Mi");
 
         try {
             //Deployment creation
-            for (Container container : containers) {
-                io.fabric8.kubernetes.api.model.Container kubContainer = new io.fabric8.kubernetes.api.model.Container();
-                kubContainer.setName(container.getContainerName());
-                kubContainer.setImage(container.getBaseImageName() + ":" + container.getBaseImageVersion());
-                kubContainer.setImagePullPolicy(KubernetesPovisioningConstants.IMAGE_PULL_POLICY_ALWAYS);
-
-                ResourceRequirementsBuilder resourceRequirementsBuilder = new ResourceRequirementsBuilder();
-                ResourceRequirements resourceRequirement = resourceRequirementsBuilder
-                                                                   .addToLimits("cpu", new Quantity(cpuLimit))
-                                                                   .addToRequests("cpu", new Quantity(cpuRequest))
-                                                                   .addToLimits("memory", new Quantity(memoryLimit))
-                                                                   .addToRequests("memory", new Quantity(memoryRequest))
-                                                                   .build();
-                kubContainer.setResources(resourceRequirement);
-
-                //Checking whether the container is including volume mounts
-                if(container.getVolumeMounts()!= null) {
-                    kubContainer.setVolumeMounts(container.getVolumeMounts());
-                }
-
-                List<ContainerPort> containerPorts = new ArrayList<>();
-                List<ServiceProxy> serviceProxies = container.getServiceProxies();
-                if( serviceProxies != null && serviceProxies.size() > 0) {
-                    for (ServiceProxy serviceProxy : serviceProxies) {
-                        ContainerPort kubContainerPort = new ContainerPortBuilder()
-                                .withContainerPort(serviceProxy.getServiceBackendPort())
-                                .build();
-                        containerPorts.add(kubContainerPort);
-                    }
-                }
-                kubContainer.setPorts(containerPorts);
-                if (container.getEnvVariables() != null) {
-                    List<EnvVar> envVarList = new ArrayList<>();
-                    for (Map.Entry envVarEntry : container.getEnvVariables().entrySet()) {
-                        EnvVar envVar = new EnvVarBuilder()
-                                .withName((String) envVarEntry.getKey())
-                                .withValue((String) envVarEntry.getValue())
-                                .build();
-                        envVarList.add(envVar);
-                    }
-                    kubContainer.setEnv(envVarList);
-                }
-                kubContainerList.add(kubContainer);
-            }
-
-            PodSpec podSpec = new PodSpecBuilder()
-                    .withContainers(kubContainerList)
-                    .withVolumes(config.getSecrets())
-                    .build();
-
-            PodTemplateSpec podTemplateSpec = new PodTemplateSpecBuilder()
-                    .withMetadata(new ObjectMetaBuilder()
-                    .withLabels(KubernetesProvisioningUtils.getLableMap(applicationContext))
-                    .build())
-                    .withSpec(podSpec)
-                    .build();
+            PodTemplateSpec podTemplateSpec = getPodTemplate(config);
 
             DeploymentSpec deploymentSpec = new DeploymentSpecBuilder()
                     .withReplicas(config.getReplicas())
@@ -243,13 +151,232 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
             log.error(msg, e);
             throw new RuntimeProvisioningException(msg, e);
         } finally {
-            if (kubClient != null) {
-                kubClient.close();
-            }
+            markCacheModified();
         }
         return serviceNameList;
     }
 
+    /**
+     * Replace the pod template of the existing deployment with a single patch request. The services of the deployment
+     * are not touched, and the deployment controller replaces the pods with a rolling update, keeping the application
+     * available throughout the update as limited by the max surge and max unavailable properties. An exception is
+     * thrown only if the deployment is not updated, failures after the update are reported through the future.
+     * @param config  deployment configuration
+     * @param timeout maximum time in milliseconds to wait until the rolling update is completed
+     * @return future which completes once all the replicas are updated and ready
+     * @throws RuntimeProvisioningException if the deployment does not exist or could not be updated
+     */
+    @Override
+    public Future<Boolean> updateDeployment(DeploymentConfig config, long timeout)
+            throws RuntimeProvisioningException {
+        String deploymentName = config.getDeploymentName().toLowerCase();
+        Deployment deployment;
+        try {
+            deployment = getDeployment(deploymentName);
+        } catch (KubernetesClientException e) {
+            String msg = "Error while getting Deployment : " + deploymentName;
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        }
+        if (deployment == null) {
+            throw new RuntimeProvisioningException("Deployment : " + deploymentName + " does not exist in namespace : "
+                    + namespace.getMetadata().getName());
+        }
+        //the pod template is always changed by the patch, hence the updated deployment has the next generation
+        Long generation = deployment.getMetadata().getGeneration();
+        long minGeneration = generation == null ? 0 : generation + 1;
+        Future<Boolean> rollout = KubernetesProvisioningUtils.waitForDeploymentRollout(applicationContext,
+                deploymentName, minGeneration, timeout);
+        boolean patched = false;
+        try {
+            rollOutPodTemplate(config);
+            patched = true;
+        } finally {
+            if (!patched) {
+                rollout.cancel(false);
+            }
+        }
+        return rollout;
+    }
+
+    /**
+     * Replace the pod template of the existing deployment and start a rolling update.
+     * @param config deployment configuration
+     * @throws RuntimeProvisioningException
+     */
+    private void rollOutPodTemplate(DeploymentConfig config) throws RuntimeProvisioningException {
+        String deploymentName = config.getDeploymentName().toLowerCase();
+        JSONObject template;
+        try {
+            template = new JSONObject(KubernetesHelper.toJson(getPodTemplate(config)));
+        } catch (JsonProcessingException e) {
+            String msg = "Error while building the pod template of Deployment : " + deploymentName;
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        }
+        JSONObject podSpec = template.getJSONObject("spec");
+        if (!podSpec.has("volumes")) {
+            //volumes are merged with the existing ones unless they are removed explicitly
+            podSpec.put("volumes", JSONObject.NULL);
+        }
+        //the pods are replaced even if the pod template is unchanged, so that updated images of the same tag are pulled
+        template.getJSONObject("metadata").put("annotations", getUpdatedTimeAnnotation());
+
+        JSONObject spec = new JSONObject().put("template", template).put("strategy", getRollingUpdateStrategy());
+        patchDeployment(deploymentName, KubernetesPovisioningConstants.MIME_TYPE_MERGE_PATCH_JSON,
+                new JSONObject().put("spec", spec));
+        log.info("Started rolling update of Deployment : " + deploymentName + " in namespace : "
+                + namespace.getMetadata().getName());
+    }
+
+    /**
+     * Get the existing deployment with the given name in the namespace of the application.
+     * @param deploymentName name of the deployment
+     * @return deployment, or null if the deployment does not exist
+     */
+    private Deployment getDeployment(String deploymentName) {
+        return KubernetesProvisioningUtils.getFabric8KubernetesClient().extensions().deployments()
+                .inNamespace(namespace.getMetadata().getName()).withName(deploymentName.toLowerCase()).get();
+    }
+
+    /**
+     * Read the namespace from the API server for a while, since the watches of the cache may not have delivered the
+     * objects just created, updated or deleted.
+     */
+    private void markCacheModified() {
+        KubernetesResourceCache.markModified(namespace.getMetadata().getName());
+    }
+
+    private JSONObject getUpdatedTimeAnnotation() {
+        return new JSONObject().put(KubernetesPovisioningConstants.ANNOTATION_KEY_UPDATED_TIME,
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    private JSONObject getRollingUpdateStrategy() {
+        JSONObject rollingUpdate = new JSONObject()
+                .put("maxSurge", getIntOrString(KubernetesPovisioningConstants.ROLLING_UPDATE_MAX_SURGE,
+                        KubernetesPovisioningConstants.DEFAULT_ROLLING_UPDATE_MAX_SURGE))
+                .put("maxUnavailable", getIntOrString(KubernetesPovisioningConstants.ROLLING_UPDATE_MAX_UNAVAILABLE,
+                        KubernetesPovisioningConstants.DEFAULT_ROLLING_UPDATE_MAX_UNAVAILABLE));
+        return new JSONObject().put("type", "RollingUpdate").put("rollingUpdate", rollingUpdate);
+    }
+
+    /**
+     * Patch the deployment with the given name in the namespace of the application.
+     * @param deploymentName name of the deployment
+     * @param mimeType       patch type
+     * @param patch          patch of the deployment
+     * @throws RuntimeProvisioningException
+     */
+    private void patchDeployment(String deploymentName, String mimeType, JSONObject patch)
+            throws RuntimeProvisioningException {
+        String deploymentPath = KubernetesPovisioningConstants.INGRESS_API_NAMESPACE_RESOURCE_PATH
+                + namespace.getMetadata().getName() + KubernetesPovisioningConstants.DEPLOYMENT_API_RESOURCE_PATH_SUFFIX
+                + deploymentName;
+        try {
+            KubernetesProvisioningUtils.patchResource(deploymentPath, mimeType, patch);
+        } catch (RuntimeProvisioningException e) {
+            String msg = "Error while updating Deployment : " + deploymentName;
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        } finally {
+            markCacheModified();
+        }
+    }
+
+    /**
+     * Get a rolling update parameter, which is either a number of pods or a percentage of the replicas.
+     * @param propertyName name of the property
+     * @param defaultValue default value of the property
+     * @return number or percentage
+     */
+    private Object getIntOrString(String propertyName, String defaultValue) {
+        String value = AppCloudUtil.getPropertyValue(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            value = defaultValue;
+        }
+        value = value.trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Get the pod template of the deployment with the containers, resource limits and secret volumes of the
+     * deployment configuration.
+     * @param config deployment configuration
+     * @return K8s pod template
+     */
+    private PodTemplateSpec getPodTemplate(DeploymentConfig config) {
+        List<Container> containers = config.getContainers();
+        ArrayList<io.fabric8.kubernetes.api.model.Container> kubContainerList = new ArrayList<>();
+        String cpuLimitInt = resourceQuotaLimit.getCpuLimit();
+        String cpuLimit = cpuLimitInt.concat("m");
+        String cpuRequest = resourceQuotaLimit.getCpuRequest().concat("m");
+        String memoryLimitInt = resourceQuotaLimit.getMemoryLimit();
+        String memoryLimit = memoryLimitInt.concat("Mi");
+        String memoryRequest = resourceQuotaLimit.getMemoryRequest().concat("Mi");
+
+        for (Container container : containers) {
+            io.fabric8.kubernetes.api.model.Container kubContainer = new io.fabric8.kubernetes.api.model.Container();
+            kubContainer.setName(container.getContainerName());
+            kubContainer.setImage(container.getBaseImageName() + ":" + container.getBaseImageVersion());
+            kubContainer.setImagePullPolicy(KubernetesPovisioningConstants.IMAGE_PULL_POLICY_ALWAYS);
+
+            ResourceRequirementsBuilder resourceRequirementsBuilder = new ResourceRequirementsBuilder();
+            ResourceRequirements resourceRequirement = resourceRequirementsBuilder
+                                                               .addToLimits("cpu", new Quantity(cpuLimit))
+                                                               .addToRequests("cpu", new Quantity(cpuRequest))
+                                                               .addToLimits("memory", new Quantity(memoryLimit))
+                                                               .addToRequests("memory", new Quantity(memoryRequest))
+                                                               .build();
+            kubContainer.setResources(resourceRequirement);
+
+            //Checking whether the container is including volume mounts
+            if(container.getVolumeMounts()!= null) {
+                kubContainer.setVolumeMounts(container.getVolumeMounts());
+            }
+
+            List<ContainerPort> containerPorts = new ArrayList<>();
+            List<ServiceProxy> serviceProxies = container.getServiceProxies();
+            if( serviceProxies != null && serviceProxies.size() > 0) {
+                for (ServiceProxy serviceProxy : serviceProxies) {
+                    ContainerPort kubContainerPort = new ContainerPortBuilder()
+                            .withContainerPort(serviceProxy.getServiceBackendPort())
+                            .build();
+                    containerPorts.add(kubContainerPort);
+                }
+            }
+            kubContainer.setPorts(containerPorts);
+            if (container.getEnvVariables() != null) {
+                List<EnvVar> envVarList = new ArrayList<>();
+                for (Map.Entry envVarEntry : container.getEnvVariables().entrySet()) {
+                    EnvVar envVar = new EnvVarBuilder()
+                            .withName((String) envVarEntry.getKey())
+                            .withValue((String) envVarEntry.getValue())
+                            .build();
+                    envVarList.add(envVar);
+                }
+                kubContainer.setEnv(envVarList);
+            }
+            kubContainerList.add(kubContainer);
+        }
+
+        PodSpec podSpec = new PodSpecBuilder()
+                .withContainers(kubContainerList)
+                .withVolumes(config.getSecrets())
+                .build();
+
+        return new PodTemplateSpecBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                .withLabels(KubernetesProvisioningUtils.getLableMap(applicationContext))
+                .build())
+                .withSpec(podSpec)
+                .build();
+    }
+
     /**
      * Get service with service port and service specification.
      * @param serviceProxy service information
@@ -527,13 +654,18 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
         //Initially assume first container is the application
         deploymentConfig.getContainers().get(0).setEnvVariables(envVariables);
 
-        //Call deploy application to redeploy application with runtime properties
-        deployApplication(deploymentConfig);
+        //Update the existing deployment in place with a rolling update, or deploy the application if it is not deployed
+        if (getDeployment(deploymentConfig.getDeploymentName()) != null) {
+            rollOutPodTemplate(deploymentConfig);
+        } else {
+            deployApplication(deploymentConfig);
+        }
 
     }
 
     /**
-     * Update runtime properties already defined in the application.
+     * Update runtime properties already defined in the application. The environment variables and secret volumes of
+     * the pod template are replaced with the given properties, hence the removed properties are removed from the pods.
      *
      * @param runtimeProperties list of runtime properties
      * @param deploymentConfig  includes deployment related details
@@ -544,7 +676,11 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
             throws RuntimeProvisioningException {
 
         List secrets = new ArrayList();
-        Container container = new Container();
+
+        //list of env variables
+        HashMap<String, String> envVariables = new HashMap<>();
+
+        List<VolumeMount> volumeMounts = new ArrayList<>();
 
         for (RuntimeProperty runtimeProperty : runtimeProperties) {
             switch (runtimeProperty.getPropertyType()) {
@@ -568,7 +704,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                         .withName(runtimeProperty.getName()).replace(secret);
 
                 Volume volume = new VolumeBuilder()
-                        .withName(KubernetesPovisioningConstants.VOLUME_MOUNT)
+                        .withName(runtimeProperty.getName())
                         .withNewSecret()
                         .withSecretName(runtimeProperty.getName())
                         .endSecret()
@@ -576,6 +712,15 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
 
                 secrets.add(volume);
 
+                //create volume mount for the secretes
+                VolumeMount volumeMount = new VolumeMountBuilder()
+                        .withName(runtimeProperty.getName())
+                        .withMountPath(KubernetesPovisioningConstants.VOLUME_MOUNT_PATH + runtimeProperty.getName())
+                        .withReadOnly(true)
+                        .build();
+
+                volumeMounts.add(volumeMount);
+
                 break;
             case ENVIRONMENT:
                 if (log.isDebugEnabled()) {
@@ -587,7 +732,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                 }
 
                 //updating environment variables for container
-                container.setEnvVariables(runtimeProperty.getProperties());
+                envVariables.putAll(runtimeProperty.getProperties());
 
                 break;
             default:
@@ -598,12 +743,22 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
             }
         }
 
-        List<Container> containers = new ArrayList<>();
-        containers.add(container);
-        deploymentConfig.setContainers(containers);
+        //Initially assume first container is the application and set volume mounts
+        deploymentConfig.getContainers().get(0).setVolumeMounts(volumeMounts);
+
+        //Set secretes to a pod
+        deploymentConfig.setSecrets(secrets);
+
+        //Initially assume first container is the application
+        deploymentConfig.getContainers().get(0).setEnvVariables(envVariables);
 
-        //call application deployment to re deploy the application with update variables
-        deployApplication(deploymentConfig);
+        //Replace the pod template of the existing deployment with a rolling update, so that the removed environment
+        //variables and secrets are removed from the pods as well, or deploy the application if it is not deployed
+        if (getDeployment(deploymentConfig.getDeploymentName()) != null) {
+            rollOutPodTemplate(deploymentConfig);
+        } else {
+            deployApplication(deploymentConfig);
+        }
     }
 
     /**
@@ -663,7 +818,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     public boolean addCustomDomain(Set<String> domains) throws RuntimeProvisioningException {
 
         AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext);
+        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext, false);
         Ingress createdIng;
         boolean created = false;
 
@@ -705,6 +860,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                 }
             }
         }
+        markCacheModified();
 
         return created;
     }
@@ -721,7 +877,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
 
         AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
 
-        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext);
+        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext, false);
         boolean deleted = false;
         boolean updated = false;
         Ingress createdIng;
@@ -779,6 +935,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                         service.getMetadata().getName());
             }
         }
+        markCacheModified();
         return  updated;
     }
 
@@ -791,12 +948,17 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     @Override
     public Set<String> getCustomDomains() throws RuntimeProvisioningException {
 
-        AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
         Set<String> domains = new HashSet<>();
 
-        IngressList ingressList = kubClient.extensions().ingress().
-                inNamespace(namespace.getMetadata().getName()).list();
-        for (Ingress ingress : ingressList.getItems()){
+        List<Ingress> ingresses = KubernetesResourceCache.getIngresses(namespace.getMetadata().getName(),
+                Collections.<String, String>emptyMap());
+        if (ingresses == null || ingresses.isEmpty()) {
+            //ingresses just created may not be delivered by the watch yet, hence read from the API server
+            AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
+            ingresses = kubClient.extensions().ingress().inNamespace(namespace.getMetadata().getName()).list()
+                    .getItems();
+        }
+        for (Ingress ingress : ingresses){
             domains.add(ingress.getSpec().getRules().get(0).getHost());
         }
         return domains;
@@ -812,7 +974,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     public boolean deleteCustomDomain(String domain) throws RuntimeProvisioningException {
         AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
 
-        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext);
+        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext, false);
         boolean deleted = false;
 
         for (Service service : serviceList.getItems()) {
@@ -832,6 +994,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                         service.getMetadata().getName());
             }
         }
+        markCacheModified();
         return deleted;
     }
 
@@ -839,7 +1002,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     public boolean createDeploymentUrl(String environmentUrl) throws RuntimeProvisioningException {
 
         AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext);
+        ServiceList serviceList = KubernetesProvisioningUtils.getServices(applicationContext, false);
         if (log.isDebugEnabled()){
             log.debug("Deployment service List size: " + serviceList.getItems().size());
         }
@@ -901,6 +1064,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                         service.getMetadata().getName());
             }
         }
+        markCacheModified();
         return created;
     }
 
@@ -910,24 +1074,56 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     @Override
     public boolean deleteDeployment() throws RuntimeProvisioningException {
         try {
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_DEPLOYMENT);
-            KubernetesProvisioningUtils.waitForDeploymentToGetDeleted(applicationContext);
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_REPLICATION_CONTROLLER);
-            KubernetesProvisioningUtils.waitForRCToGetDeleted(applicationContext);
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_POD);
-            KubernetesProvisioningUtils.waitForPodToGetDeleted(applicationContext);
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_INGRESS);
-            KubernetesProvisioningUtils.waitForIngressesToGetDeleted(applicationContext);
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_SECRETS);
-            KubernetesProvisioningUtils.waitForSecretToGetDeleted(applicationContext);
-            deleteK8sKind(KubernetesPovisioningConstants.KIND_SERVICE);
-            KubernetesProvisioningUtils.waitForServiceToGetDeleted(applicationContext);
+            //as before, the workload kinds are deleted before the ingresses, secrets and services, so that the pods
+            //stop serving before their endpoints are removed
+            deleteK8sKinds(Arrays.asList(KubernetesPovisioningConstants.KIND_DEPLOYMENT,
+                    KubernetesPovisioningConstants.KIND_REPLICATION_CONTROLLER,
+                    KubernetesPovisioningConstants.KIND_POD));
+            deleteK8sKinds(Arrays.asList(KubernetesPovisioningConstants.KIND_INGRESS,
+                    KubernetesPovisioningConstants.KIND_SECRETS, KubernetesPovisioningConstants.KIND_SERVICE));
             return true;
         } catch (RuntimeProvisioningException e){
             return false;
         }
     }
 
+    /**
+     * Delete the objects of the given kinds in order and wait until all of them get deleted.
+     *
+     * @param k8sKinds k8s object types
+     * @throws RuntimeProvisioningException if an object cannot be deleted or the waiting is interrupted
+     */
+    private void deleteK8sKinds(List<String> k8sKinds) throws RuntimeProvisioningException {
+        //watch the kinds before deleting them so that no deletion is missed
+        Future<Boolean> deletion = KubernetesProvisioningUtils.waitForResourcesToGetDeleted(applicationContext,
+                KubernetesProvisioningUtils.getIntPropertyValue(KubernetesPovisioningConstants.RESOURCES_DELETE_TIMEOUT,
+                        KubernetesPovisioningConstants.DEFAULT_RESOURCES_DELETE_TIMEOUT), k8sKinds);
+        boolean deleted = false;
+        try {
+            for (String k8sKind : k8sKinds) {
+                deleteK8sKind(k8sKind);
+            }
+            deleted = true;
+        } finally {
+            if (!deleted) {
+                deletion.cancel(false);
+            }
+        }
+        try {
+            deletion.get();
+        } catch (ExecutionException e) {
+            log.warn(k8sKinds + " of application: " + applicationContext.getId() + " and version: "
+                    + applicationContext.getVersion() + " are not completely deleted", e.getCause());
+        } catch (InterruptedException e) {
+            deletion.cancel(false);
+            Thread.currentThread().interrupt();
+            String msg = "Interrupted while waiting until " + k8sKinds + " of application: "
+                    + applicationContext.getId() + " and version: " + applicationContext.getVersion() + " get deleted";
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        }
+    }
+
     /**
      * Delete K8s object for given kind with labels.
      *
@@ -966,6 +1162,8 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
             String message = "Error while deleting kubernetes kind : " + k8sKind + " from deployment";
             log.error(message, e);
             throw new RuntimeProvisioningException(message, e);
+        } finally {
+            markCacheModified();
         }
     }
 
@@ -1010,6 +1208,8 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
                     " from deployment";
             log.error(message, e);
             throw new RuntimeProvisioningException(message, e);
+        } finally {
+            markCacheModified();
         }
     }
 
@@ -1028,6 +1228,8 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
             String message = "Error while creating kubernetes kind service with namespace : " + namespace;
             log.error(message, e);
             throw new RuntimeProvisioningException(message, e);
+        } finally {
+            markCacheModified();
         }
     }
 
@@ -1099,14 +1301,9 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     @Override
     public void changeExposureLevelInServices(String serviceName, String exposureLevel, String lbHost)
             throws  RuntimeProvisioningException {
-        AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-        kubClient.services().inNamespace(this.namespace.getMetadata().getName())
-                .withName(serviceName).edit().editMetadata()
-                .addToLabels("exposure-level", exposureLevel).endMetadata().done();
-
-        kubClient.services().inNamespace(this.namespace.getMetadata().getName())
-                .withName(serviceName).edit().editMetadata()
-                .addToAnnotations("serviceloadbalancer/lb.host", lbHost).endMetadata().done();
+        patchServiceMetadata(Collections.singletonList(serviceName),
+                Collections.singletonMap("exposure-level", exposureLevel),
+                Collections.singletonMap(KubernetesPovisioningConstants.ANNOTATION_KEY_HOST, lbHost));
     }
 
     /**
@@ -1115,16 +1312,42 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
     @Override
     public void updateKubernetesServiceWithLabel(String serviceName, String labelKey, String labelValue)
             throws RuntimeProvisioningException {
+        patchServiceMetadata(Collections.singletonList(serviceName), Collections.singletonMap(labelKey, labelValue),
+                Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void patchServiceMetadata(List<String> serviceNames, Map<String, String> labels,
+            Map<String, String> annotations) throws RuntimeProvisioningException {
         String namespace = this.namespace.getMetadata().getName();
-        try {
-            AutoAdaptableKubernetesClient kubClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
-            kubClient.services().inNamespace(namespace).withName(serviceName).edit().editMetadata()
-                    .addToLabels(labelKey, labelValue).endMetadata().done();
-        } catch (KubernetesClientException e) {
-            String message = "Error while adding label to kubernetes kind service with service name: " + serviceName
-                    + " in namespace: " + namespace;
-            log.error(message, e);
-            throw new RuntimeProvisioningException(message, e);
+        JSONObject metadata = new JSONObject();
+        if (labels != null && !labels.isEmpty()) {
+            metadata.put("labels", new JSONObject(labels));
+        }
+        if (annotations != null && !annotations.isEmpty()) {
+            metadata.put("annotations", new JSONObject(annotations));
+        }
+        if (metadata.length() == 0) {
+            return;
+        }
+        JSONObject patch = new JSONObject().put("metadata", metadata);
+        String servicesPath = KubernetesPovisioningConstants.CORE_API_NAMESPACE_RESOURCE_PATH + namespace
+                + KubernetesPovisioningConstants.SERVICE_API_RESOURCE_PATH_SUFFIX;
+        for (String serviceName : serviceNames) {
+            try {
+                KubernetesProvisioningUtils.patchResource(servicesPath + serviceName,
+                        KubernetesPovisioningConstants.MIME_TYPE_MERGE_PATCH_JSON, patch);
+            } catch (RuntimeProvisioningException e) {
+                String message = "Error while updating labels and annotations of kubernetes kind service with "
+                        + "service name: " + serviceName + " in namespace: " + namespace;
+                log.error(message, e);
+                throw new RuntimeProvisioningException(message, e);
+            } finally {
+                markCacheModified();
+            }
         }
     }
 
@@ -1156,6 +1379,7 @@ public class KubernetesRuntimeProvisioningService implements RuntimeProvisioning
         String namespace = this.namespace.getMetadata().getName();
 
         kubernetesClient.extensions().deployments().inNamespace(namespace).withName(name).scale(replicaCount);
+        markCacheModified();
     }
 
     /**
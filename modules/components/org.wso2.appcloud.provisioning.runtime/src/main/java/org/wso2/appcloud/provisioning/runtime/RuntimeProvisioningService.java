@@ -21,6 +21,7 @@ import org.wso2.appcloud.provisioning.runtime.beans.*;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public interface RuntimeProvisioningService {
 
@@ -74,6 +75,19 @@ public interface RuntimeProvisioningService {
      */
     List<String> deployApplication(DeploymentConfig deploymentConfig) throws RuntimeProvisioningException;
 
+    /**
+     * Update the pod template of an existing deployment in place, so that the pods are replaced with a rolling update
+     * instead of deleting and deploying the application again. The deployment is not changed if an exception is
+     * thrown, failures of the rolling update are reported through the returned future.
+     *
+     * @param deploymentConfig details of the deployment
+     * @param timeout          maximum time in milliseconds to wait until the rolling update is completed
+     * @return future which completes once all the replicas are updated and ready
+     * @throws RuntimeProvisioningException if the deployment does not exist or could not be updated
+     */
+    Future<Boolean> updateDeployment(DeploymentConfig deploymentConfig, long timeout)
+            throws RuntimeProvisioningException;
+
     /**
      * Provide deployment related details.
      *
@@ -230,6 +244,18 @@ public interface RuntimeProvisioningService {
      */
     void updateKubernetesServiceWithLabel(String serviceName, String labelKey, String labelValue)
             throws RuntimeProvisioningException;
+
+    /**
+     * Add or replace labels and annotations of services, with a single patch request per service
+     *
+     * @param serviceNames names of the services to be updated
+     * @param labels       labels to be added or replaced, may be empty
+     * @param annotations  annotations to be added or replaced, may be empty
+     * @throws RuntimeProvisioningException
+     */
+    void patchServiceMetadata(List<String> serviceNames, Map<String, String> labels, Map<String, String> annotations)
+            throws RuntimeProvisioningException;
+
     /**
      *This method will create a new horizontal pod autoscaler for a given deployment
      *
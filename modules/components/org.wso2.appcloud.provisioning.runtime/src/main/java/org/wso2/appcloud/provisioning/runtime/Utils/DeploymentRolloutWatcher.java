@@ -0,0 +1,107 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentStatus;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Deployment watcher which completes the given future once a rolling update of the deployment is rolled out, i.e.
+ * the deployment controller has observed the updated pod template and all the replicas are updated and available.
+ * The watch can be opened before the pod template is updated, since the earlier generations of the deployment are
+ * not considered as rolled out.
+ * Pods become available only after they are ready, hence traffic is never routed to a replica before it can serve.
+ */
+public class DeploymentRolloutWatcher implements Watcher<Deployment> {
+
+    private static final Log log = LogFactory.getLog(DeploymentRolloutWatcher.class);
+
+    private final WatchFuture<Boolean> future;
+    private final long minGeneration;
+
+    /**
+     * @param future        future to be completed when the rollout is completed
+     * @param minGeneration first generation of the deployment which has the updated pod template
+     */
+    public DeploymentRolloutWatcher(WatchFuture<Boolean> future, long minGeneration) {
+        this.future = future;
+        this.minGeneration = minGeneration;
+    }
+
+    @Override
+    public void eventReceived(Action action, Deployment deployment) {
+        if (log.isDebugEnabled()) {
+            log.debug("Received " + action + " event for deployment: " + deployment.getMetadata().getName());
+        }
+        switch (action) {
+            case ADDED:
+            case MODIFIED:
+                checkRollout(deployment);
+                break;
+            case DELETED:
+                future.fail(new IllegalStateException("Deployment: " + deployment.getMetadata().getName()
+                        + " was deleted during the rolling update"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onClose(KubernetesClientException cause) {
+        if (cause != null) {
+            future.fail(cause);
+        }
+    }
+
+    /**
+     * Check a deployment obtained from a get call made after the watch was opened, since a rollout which completed
+     * before the watch was opened will not be notified.
+     *
+     * @param deployment deployment being rolled out
+     */
+    public void checkRollout(Deployment deployment) {
+        DeploymentStatus status = deployment.getStatus();
+        if (status == null || deployment.getSpec() == null) {
+            return;
+        }
+        Long generation = deployment.getMetadata().getGeneration();
+        Long observedGeneration = status.getObservedGeneration();
+        if (generation != null && generation < minGeneration) {
+            // the pod template is not yet updated
+            return;
+        }
+        if (generation != null && (observedGeneration == null || observedGeneration < generation)) {
+            // the deployment controller has not yet seen the updated pod template
+            return;
+        }
+        Integer specReplicas = deployment.getSpec().getReplicas();
+        int replicas = specReplicas != null ? specReplicas : 1;
+        if (getValue(status.getUpdatedReplicas()) >= replicas && getValue(status.getAvailableReplicas()) >= replicas
+                && getValue(status.getReplicas()) <= replicas) {
+            future.complete(true);
+        }
+    }
+
+    private static int getValue(Integer value) {
+        return value != null ? value : 0;
+    }
+}
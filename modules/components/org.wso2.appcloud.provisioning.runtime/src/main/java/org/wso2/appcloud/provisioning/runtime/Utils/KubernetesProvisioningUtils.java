@@ -16,22 +16,35 @@
 
 package org.wso2.appcloud.provisioning.runtime.Utils;
 
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.extensions.*;
 import io.fabric8.kubernetes.client.AutoAdaptableKubernetesClient;
 import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.json.JSONObject;
 import org.wso2.appcloud.common.util.AppCloudUtil;
 import org.wso2.appcloud.provisioning.runtime.KubernetesPovisioningConstants;
 import org.wso2.appcloud.provisioning.runtime.RuntimeProvisioningException;
 import org.wso2.appcloud.provisioning.runtime.beans.ApplicationContext;
 import org.wso2.appcloud.provisioning.runtime.beans.TenantInfo;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This will have the utility methods to provision kubernetes.
@@ -41,26 +54,128 @@ public class KubernetesProvisioningUtils {
     private static final Log log = LogFactory.getLog(KubernetesProvisioningUtils.class);
 
     /**
-     * This method will create a common Kubernetes client object with authentication to the Kubernetes master server.
+     * Kubernetes clients shared across the provisioning service, keyed by the master url they are connected to.
+     */
+    private static final ConcurrentMap<String, AutoAdaptableKubernetesClient> kubernetesClients =
+            new ConcurrentHashMap<>();
+
+    /**
+     * This method will return the common Kubernetes client object with authentication to the Kubernetes master server.
+     * The client is created once per master url and shared by all callers, hence it must not be closed by them.
      *
      * @return Kubernetes client object
      */
     public static AutoAdaptableKubernetesClient getFabric8KubernetesClient() {
 
-        AutoAdaptableKubernetesClient kubernetesClient = null;
+        String masterUrl = AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_MASTER_URL);
+        AutoAdaptableKubernetesClient kubernetesClient = kubernetesClients.get(masterUrl);
+        if (kubernetesClient != null) {
+            return kubernetesClient;
+        }
 
         Config config = new Config();
         config.setUsername(AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_MASTER_USERNAME));
         config.setPassword(AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_MASTER_PASSWORD));
-        config.setNoProxy(
-                new String[] { AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_MASTER_URL) });
-        config.setMasterUrl(AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_MASTER_URL));
+        config.setNoProxy(new String[] { masterUrl });
+        config.setMasterUrl(masterUrl);
         config.setApiVersion(AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_API_VERSION));
-        kubernetesClient = new AutoAdaptableKubernetesClient(config);
+        config.setConnectionTimeout(getIntPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_CONNECTION_TIMEOUT,
+                config.getConnectionTimeout()));
+        config.setRequestTimeout(getIntPropertyValue(KubernetesPovisioningConstants.PROPERTY_KUB_REQUEST_TIMEOUT,
+                config.getRequestTimeout()));
+        config.setWatchReconnectInterval(getIntPropertyValue(
+                KubernetesPovisioningConstants.PROPERTY_KUB_WATCH_RECONNECT_INTERVAL,
+                config.getWatchReconnectInterval()));
 
+        kubernetesClient = new AutoAdaptableKubernetesClient(config);
+        AutoAdaptableKubernetesClient existingClient = kubernetesClients.putIfAbsent(masterUrl, kubernetesClient);
+        if (existingClient != null) {
+            // another thread created the client for this master url first, so discard ours
+            kubernetesClient.close();
+            return existingClient;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Created shared Kubernetes client for master url: " + masterUrl);
+        }
         return kubernetesClient;
     }
 
+    /**
+     * This method will close all the shared Kubernetes clients and release their connections.
+     */
+    public static void closeFabric8KubernetesClients() {
+
+        for (String masterUrl : kubernetesClients.keySet()) {
+            AutoAdaptableKubernetesClient kubernetesClient = kubernetesClients.remove(masterUrl);
+            if (kubernetesClient != null) {
+                kubernetesClient.close();
+                if (log.isDebugEnabled()) {
+                    log.debug("Closed shared Kubernetes client for master url: " + masterUrl);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read an integer property from the app cloud configuration, falling back to the given default value when the
+     * property is not set or is not a valid number.
+     *
+     * @param propertyName name of the property
+     * @param defaultValue value to be used when the property is not available
+     * @return value of the property
+     */
+    public static int getIntPropertyValue(String propertyName, int defaultValue) {
+
+        String value = AppCloudUtil.getPropertyValue(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " for property: " + propertyName + ", hence using default value: "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Patch a Kubernetes object with a single PATCH request, so that the object is neither read nor replaced as a
+     * whole. Changes made to the object by others in between are preserved, unlike with read, modify and replace.
+     *
+     * @param resourcePath path of the object relative to the master url,
+     *                     e.g. api/v1/namespaces/{namespace}/services/{name}
+     * @param mimeType     patch type, either merge patch or strategic merge patch
+     * @param patch        patch of the object
+     * @throws RuntimeProvisioningException if the object could not be patched
+     */
+    public static void patchResource(String resourcePath, String mimeType, JSONObject patch)
+            throws RuntimeProvisioningException {
+        AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
+        try {
+            Request request = new Request.Builder()
+                    .url(new URL(kubernetesClient.getMasterUrl(), resourcePath))
+                    .patch(RequestBody.create(MediaType.parse(mimeType), patch.toString()))
+                    .build();
+            Response response = kubernetesClient.getHttpClient().newCall(request).execute();
+            try {
+                if (!response.isSuccessful()) {
+                    throw new RuntimeProvisioningException("Error while patching kubernetes object: " + resourcePath
+                            + ", response code: " + response.code() + ", response: " + response.body().string());
+                }
+            } finally {
+                response.body().close();
+            }
+        } catch (IOException e) {
+            String message = "Error while patching kubernetes object: " + resourcePath;
+            log.error(message, e);
+            throw new RuntimeProvisioningException(message, e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Patched kubernetes object: " + resourcePath + " with: " + patch);
+        }
+    }
+
     /**
      * This utility method will generate the namespace of the current application context.
      *
@@ -68,10 +183,19 @@ public class KubernetesProvisioningUtils {
      * @return namespace of the current application context
      */
     public static Namespace getNameSpace(ApplicationContext applicationContext) {
+        return getNameSpace(applicationContext.getTenantInfo().getTenantDomain());
+    }
+
+    /**
+     * This utility method will generate the namespace of a tenant.
+     *
+     * @param tenantDomain domain of the tenant
+     * @return namespace of the tenant
+     */
+    public static Namespace getNameSpace(String tenantDomain) {
 
         // todo: consider constraints of 24 character limit in namespace.
-        String ns = applicationContext.getTenantInfo().getTenantDomain();
-        ns = ns.replace(".", "-").toLowerCase();
+        String ns = tenantDomain.replace(".", "-").toLowerCase();
         ObjectMeta metadata = new ObjectMetaBuilder()
                 .withName(ns)
                 .build();
@@ -81,7 +205,55 @@ public class KubernetesProvisioningUtils {
     }
 
     /**
-     * This utility method will provide the list of pods for particular application.
+     * This utility method will delete the namespace of a removed tenant, which removes every Kubernetes resource of
+     * the tenant at once. Kubernetes deletes the resources of the namespace on its own once the deletion is accepted,
+     * hence the call returns without waiting for them. A failed deletion is retried up to Namespace.Delete.Retries
+     * times, waiting Namespace.Delete.RetryInterval milliseconds between the attempts.
+     *
+     * @param tenantDomain domain of the tenant
+     * @return true if the namespace was deleted, false if it did not exist
+     * @throws RuntimeProvisioningException if the namespace could not be deleted
+     */
+    public static boolean deleteNamespace(String tenantDomain) throws RuntimeProvisioningException {
+
+        String namespace = getNameSpace(tenantDomain).getMetadata().getName();
+        int retries = getIntPropertyValue(KubernetesPovisioningConstants.NAMESPACE_DELETE_RETRIES,
+                KubernetesPovisioningConstants.DEFAULT_NAMESPACE_DELETE_RETRIES);
+        int retryInterval = getIntPropertyValue(KubernetesPovisioningConstants.NAMESPACE_DELETE_RETRY_INTERVAL,
+                KubernetesPovisioningConstants.DEFAULT_NAMESPACE_DELETE_RETRY_INTERVAL);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Boolean deleted = getFabric8KubernetesClient().namespaces().withName(namespace).delete();
+                KubernetesResourceCache.invalidate(namespace);
+                NamespaceRegistry.forget(namespace);
+                if (deleted != null && deleted) {
+                    log.info("Deleted namespace: " + namespace);
+                    return true;
+                }
+                log.info("Namespace: " + namespace + " was not found, hence nothing to delete");
+                return false;
+            } catch (KubernetesClientException e) {
+                if (attempt >= retries) {
+                    String msg = "Error while deleting namespace: " + namespace + ", giving up after " + retries
+                            + " retries";
+                    log.error(msg, e);
+                    throw new RuntimeProvisioningException(msg, e);
+                }
+                log.warn("Error while deleting namespace: " + namespace + ", hence retrying. Remaining retries: "
+                        + (retries - attempt), e);
+            }
+            try {
+                Thread.sleep(retryInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeProvisioningException("Interrupted while deleting namespace: " + namespace, e);
+            }
+        }
+    }
+
+    /**
+     * This utility method will provide the list of pods for particular application. Pods are read from
+     * {@link KubernetesResourceCache} when it is available.
      *
      * @param applicationContext context of the current application
      * @return list of pods related for the current application context
@@ -89,9 +261,15 @@ public class KubernetesProvisioningUtils {
     public static PodList getPods (ApplicationContext applicationContext){
 
         Map<String, String> selector = getLableMap(applicationContext);
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        List<Pod> cachedPods = KubernetesResourceCache.getPods(namespace, selector);
+        if (cachedPods != null) {
+            PodList podList = new PodList();
+            podList.setItems(cachedPods);
+            return podList;
+        }
         AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
-        PodList podList = kubernetesClient.inNamespace(getNameSpace(applicationContext).getMetadata()
-                .getName()).pods().withLabels(selector).list();
+        PodList podList = kubernetesClient.inNamespace(namespace).pods().withLabels(selector).list();
         return podList;
     }
 
@@ -104,8 +282,16 @@ public class KubernetesProvisioningUtils {
     public static DeploymentList getDeployments (ApplicationContext applicationContext){
 
         Map<String, String> selector = getLableMap(applicationContext);
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        List<Deployment> cachedDeployments = KubernetesResourceCache.getDeployments(namespace, selector);
+        if (cachedDeployments != null && !cachedDeployments.isEmpty()) {
+            DeploymentList deploymentList = new DeploymentList();
+            deploymentList.setItems(cachedDeployments);
+            return deploymentList;
+        }
+        //deployments just created may not be delivered by the watch yet, hence read from the API server
         AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
-        DeploymentList deploymentList = kubernetesClient.inNamespace(getNameSpace(applicationContext).getMetadata().getName())
+        DeploymentList deploymentList = kubernetesClient.inNamespace(namespace)
                                                         .extensions().deployments().withLabels(selector).list();
         return deploymentList;
     }
@@ -134,8 +320,16 @@ public class KubernetesProvisioningUtils {
     public static IngressList getIngresses (ApplicationContext applicationContext){
 
         Map<String, String> selector = getLableMap(applicationContext);
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        List<Ingress> cachedIngresses = KubernetesResourceCache.getIngresses(namespace, selector);
+        if (cachedIngresses != null && !cachedIngresses.isEmpty()) {
+            IngressList ingressList = new IngressList();
+            ingressList.setItems(cachedIngresses);
+            return ingressList;
+        }
+        //ingresses just created may not be delivered by the watch yet, hence read from the API server
         AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
-        IngressList ingressList = kubernetesClient.inNamespace(getNameSpace(applicationContext).getMetadata().getName())
+        IngressList ingressList = kubernetesClient.inNamespace(namespace)
                                                   .extensions().ingress().withLabels(selector).list();
         return ingressList;
     }
@@ -149,8 +343,16 @@ public class KubernetesProvisioningUtils {
     public static SecretList getSecrets (ApplicationContext applicationContext){
 
         Map<String, String> selector = getLableMap(applicationContext);
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        List<Secret> cachedSecrets = KubernetesResourceCache.getSecrets(namespace, selector);
+        if (cachedSecrets != null && !cachedSecrets.isEmpty()) {
+            SecretList secretList = new SecretList();
+            secretList.setItems(cachedSecrets);
+            return secretList;
+        }
+        //secrets just created may not be delivered by the watch yet, hence read from the API server
         AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
-        SecretList secretList = kubernetesClient.inNamespace(getNameSpace(applicationContext).getMetadata().getName())
+        SecretList secretList = kubernetesClient.inNamespace(namespace)
                                                 .secrets().withLabels(selector).list();
         return secretList;
     }
@@ -162,10 +364,29 @@ public class KubernetesProvisioningUtils {
      * @return list of services related for the current application context
      */
     public static ServiceList getServices(ApplicationContext applicationContext){
+        return getServices(applicationContext, true);
+    }
+
+    /**
+     * This utility method will provide the list of services for particular application, read from the API server
+     * when the services are about to be used for creating other objects, so that a stale cache is never used.
+     *
+     * @param applicationContext context of the current application
+     * @param useCache           whether the services may be read from {@link KubernetesResourceCache}
+     * @return list of services related for the current application context
+     */
+    public static ServiceList getServices(ApplicationContext applicationContext, boolean useCache){
         Map<String, String> selector = getLableMap(applicationContext);
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        List<Service> cachedServices = useCache ? KubernetesResourceCache.getServices(namespace, selector) : null;
+        if (cachedServices != null && !cachedServices.isEmpty()) {
+            ServiceList serviceList = new ServiceList();
+            serviceList.setItems(cachedServices);
+            return serviceList;
+        }
+        //services just created may not be delivered by the watch yet, hence read from the API server
         AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
-        ServiceList serviceList = kubernetesClient.inNamespace(getNameSpace(applicationContext).getMetadata()
-                .getName()).services().withLabels(selector).list();
+        ServiceList serviceList = kubernetesClient.inNamespace(namespace).services().withLabels(selector).list();
         return serviceList;
     }
     /**
@@ -279,6 +500,232 @@ public class KubernetesProvisioningUtils {
 
     }
 
+    /**
+     * This utility method will check whether the deployment of an application version has available replicas, e.g.
+     * whether the pods of the previous revision are still serving after a failed rolling update.
+     *
+     * @param applicationContext application context object
+     * @param deploymentName     name of the deployment
+     * @return true if at least one replica of the deployment is available
+     */
+    public static boolean isDeploymentAvailable(ApplicationContext applicationContext, String deploymentName) {
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        Deployment deployment = getFabric8KubernetesClient().extensions().deployments().inNamespace(namespace)
+                .withName(deploymentName.toLowerCase()).get();
+        if (deployment == null || deployment.getStatus() == null) {
+            return false;
+        }
+        Integer availableReplicas = deployment.getStatus().getAvailableReplicas();
+        return availableReplicas != null && availableReplicas > 0;
+    }
+
+    /**
+     * This utility method will wait until the given number of pods of an application are running. Instead of polling
+     * the pod list, a single watch is opened for the pods of the application and the returned future is completed
+     * when enough pods are running, or failed with a {@link java.util.concurrent.TimeoutException} on timeout.
+     *
+     * @param applicationContext application context object
+     * @param replicas           number of pods which should be running
+     * @param timeout            maximum waiting time in milliseconds
+     * @return future which completes when the pods are running
+     * @throws RuntimeProvisioningException
+     */
+    public static Future<Boolean> waitForPodsToBeRunning(ApplicationContext applicationContext, int replicas,
+            long timeout) throws RuntimeProvisioningException {
+
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        WatchFuture<Boolean> future = new WatchFuture<>("pods of application: " + applicationContext.getId()
+                + " and version: " + applicationContext.getVersion() + " are running");
+        PodReadinessWatcher watcher = new PodReadinessWatcher(replicas, future);
+        boolean isWatching = false;
+        try {
+            AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
+            future.addWatch(kubernetesClient.inNamespace(namespace).pods()
+                    .withLabels(getLableMap(applicationContext)).watch(watcher));
+            future.setTimeout(timeout, TimeUnit.MILLISECONDS);
+            //pods which became running before the watch was opened will not be notified
+            for (Pod pod : getPods(applicationContext).getItems()) {
+                watcher.addInitialPod(pod);
+            }
+            isWatching = true;
+        } catch (KubernetesClientException e) {
+            String msg = "Error while watching pods of application: " + applicationContext.getId() + " and version: "
+                    + applicationContext.getVersion();
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        } finally {
+            if (!isWatching) {
+                //close the watches opened before the failure
+                future.cancel(false);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * This utility method will return a future which completes once a rolling update of the deployment of an
+     * application version is rolled out, i.e. all the replicas run the updated pod template and are available.
+     * Should be called before updating the deployment, so that the watch is open when the rollout starts. Generations
+     * of the deployment older than the given one are not considered as rolled out.
+     *
+     * @param applicationContext application context object
+     * @param deploymentName     name of the deployment
+     * @param minGeneration      first generation of the deployment which has the updated pod template
+     * @param timeout            maximum waiting time in milliseconds
+     * @return future which completes when the rolling update is completed
+     * @throws RuntimeProvisioningException
+     */
+    public static Future<Boolean> waitForDeploymentRollout(ApplicationContext applicationContext, String deploymentName,
+            long minGeneration, long timeout) throws RuntimeProvisioningException {
+
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        WatchFuture<Boolean> future = new WatchFuture<>("deployment: " + deploymentName + " of application: "
+                + applicationContext.getId() + " and version: " + applicationContext.getVersion() + " is rolled out");
+        DeploymentRolloutWatcher watcher = new DeploymentRolloutWatcher(future, minGeneration);
+        boolean isWatching = false;
+        try {
+            AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
+            future.addWatch(kubernetesClient.extensions().deployments().inNamespace(namespace)
+                    .withName(deploymentName).watch(watcher));
+            future.setTimeout(timeout, TimeUnit.MILLISECONDS);
+            //a rollout which completed before the watch was opened will not be notified
+            Deployment deployment = kubernetesClient.extensions().deployments().inNamespace(namespace)
+                    .withName(deploymentName).get();
+            if (deployment != null) {
+                watcher.checkRollout(deployment);
+            }
+            isWatching = true;
+        } catch (KubernetesClientException e) {
+            String msg = "Error while watching deployment: " + deploymentName + " of application: "
+                    + applicationContext.getId() + " and version: " + applicationContext.getVersion();
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        } finally {
+            if (!isWatching) {
+                //close the watches opened before the failure
+                future.cancel(false);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * This utility method will watch all the kinds created for an application version, i.e. deployments,
+     * replication controllers, pods, ingresses, secrets and services labeled with the version hash id, and return a
+     * future which completes once all of them are deleted. The watches are opened before returning, hence the
+     * objects can be deleted after calling this method without missing any deletion.
+     *
+     * @param applicationContext application context object
+     * @param timeout            maximum waiting time in milliseconds
+     * @return future which completes when all the objects of the application version are deleted
+     * @throws RuntimeProvisioningException
+     */
+    public static Future<Boolean> waitForResourcesToGetDeleted(ApplicationContext applicationContext, long timeout)
+            throws RuntimeProvisioningException {
+
+        return waitForResourcesToGetDeleted(applicationContext, timeout, Arrays.asList(
+                KubernetesPovisioningConstants.KIND_DEPLOYMENT,
+                KubernetesPovisioningConstants.KIND_REPLICATION_CONTROLLER, KubernetesPovisioningConstants.KIND_POD,
+                KubernetesPovisioningConstants.KIND_INGRESS,
+                KubernetesPovisioningConstants.KIND_SECRETS, KubernetesPovisioningConstants.KIND_SERVICE));
+    }
+
+    /**
+     * This utility method will watch the given kinds created for an application version, labeled with the version
+     * hash id, and return a future which completes once all of them are deleted. The watches are opened before
+     * returning, hence the objects can be deleted after calling this method without missing any deletion.
+     *
+     * @param applicationContext application context object
+     * @param timeout            maximum waiting time in milliseconds
+     * @param kinds              kinds to be watched, e.g. {@link KubernetesPovisioningConstants#KIND_POD}
+     * @return future which completes when all the objects of the given kinds are deleted
+     * @throws RuntimeProvisioningException
+     */
+    public static Future<Boolean> waitForResourcesToGetDeleted(ApplicationContext applicationContext, long timeout,
+            List<String> kinds) throws RuntimeProvisioningException {
+
+        String namespace = getNameSpace(applicationContext).getMetadata().getName();
+        Map<String, String> labels = getDeleteLables(applicationContext);
+        WatchFuture<Boolean> future = new WatchFuture<>(kinds + " of application: " + applicationContext.getId()
+                + " and version: " + applicationContext.getVersion() + " are deleted");
+        ResourceDeletionWatcher deletionWatcher = new ResourceDeletionWatcher(future);
+        boolean isWatching = false;
+        try {
+            AutoAdaptableKubernetesClient kubernetesClient = getFabric8KubernetesClient();
+            //objects which exist when the watches are opened are not notified as added, hence they are listed after
+            //opening the watch of each kind
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_DEPLOYMENT)) {
+                ResourceDeletionWatcher.KindWatcher<Deployment> deploymentWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_DEPLOYMENT);
+                future.addWatch(kubernetesClient.inNamespace(namespace).extensions().deployments().withLabels(labels)
+                        .watch(deploymentWatcher));
+                deploymentWatcher.addExisting(kubernetesClient.inNamespace(namespace).extensions().deployments()
+                        .withLabels(labels).list().getItems());
+            }
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_REPLICATION_CONTROLLER)) {
+                ResourceDeletionWatcher.KindWatcher<ReplicationController> rcWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_REPLICATION_CONTROLLER);
+                future.addWatch(kubernetesClient.inNamespace(namespace).replicationControllers().withLabels(labels)
+                        .watch(rcWatcher));
+                rcWatcher.addExisting(kubernetesClient.inNamespace(namespace).replicationControllers()
+                        .withLabels(labels).list().getItems());
+            }
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_POD)) {
+                ResourceDeletionWatcher.KindWatcher<Pod> podWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_POD);
+                future.addWatch(kubernetesClient.inNamespace(namespace).pods().withLabels(labels).watch(podWatcher));
+                podWatcher.addExisting(kubernetesClient.inNamespace(namespace).pods().withLabels(labels).list()
+                        .getItems());
+            }
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_INGRESS)) {
+                ResourceDeletionWatcher.KindWatcher<Ingress> ingressWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_INGRESS);
+                future.addWatch(kubernetesClient.inNamespace(namespace).extensions().ingress().withLabels(labels)
+                        .watch(ingressWatcher));
+                ingressWatcher.addExisting(kubernetesClient.inNamespace(namespace).extensions().ingress()
+                        .withLabels(labels).list().getItems());
+            }
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_SECRETS)) {
+                ResourceDeletionWatcher.KindWatcher<Secret> secretWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_SECRETS);
+                future.addWatch(kubernetesClient.inNamespace(namespace).secrets().withLabels(labels)
+                        .watch(secretWatcher));
+                secretWatcher.addExisting(kubernetesClient.inNamespace(namespace).secrets().withLabels(labels).list()
+                        .getItems());
+            }
+            if (kinds.contains(KubernetesPovisioningConstants.KIND_SERVICE)) {
+                ResourceDeletionWatcher.KindWatcher<Service> serviceWatcher =
+                        deletionWatcher.watchKind(KubernetesPovisioningConstants.KIND_SERVICE);
+                future.addWatch(kubernetesClient.inNamespace(namespace).services().withLabels(labels)
+                        .watch(serviceWatcher));
+                serviceWatcher.addExisting(kubernetesClient.inNamespace(namespace).services().withLabels(labels)
+                        .list().getItems());
+            }
+
+            future.setTimeout(timeout, TimeUnit.MILLISECONDS);
+            deletionWatcher.start();
+            isWatching = true;
+        } catch (KubernetesClientException e) {
+            String msg = "Error while watching kinds of application: " + applicationContext.getId() + " and version: "
+                    + applicationContext.getVersion();
+            log.error(msg, e);
+            throw new RuntimeProvisioningException(msg, e);
+        } finally {
+            if (!isWatching) {
+                //close the watches opened before the failure
+                future.cancel(false);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Poll until the pods of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForPodToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isPodDeleted = false;
         try {
@@ -304,6 +751,13 @@ public class KubernetesProvisioningUtils {
         return isPodDeleted;
     }
 
+    /**
+     * Poll until the deployments of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForDeploymentToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isDeploymentDeleted = false;
         try {
@@ -329,6 +783,13 @@ public class KubernetesProvisioningUtils {
         return isDeploymentDeleted;
     }
 
+    /**
+     * Poll until the replication controllers of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForRCToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isRCDeleted = false;
         try {
@@ -354,6 +815,13 @@ public class KubernetesProvisioningUtils {
         return isRCDeleted;
     }
 
+    /**
+     * Poll until the services of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForServiceToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isServiceDeleted = false;
         try {
@@ -379,6 +847,13 @@ public class KubernetesProvisioningUtils {
         return isServiceDeleted;
     }
 
+    /**
+     * Poll until the ingresses of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForIngressesToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isIngressDeleted = false;
         try {
@@ -404,6 +879,13 @@ public class KubernetesProvisioningUtils {
         return isIngressDeleted;
     }
 
+    /**
+     * Poll until the secrets of an application get deleted.
+     *
+     * @deprecated use {@link #waitForResourcesToGetDeleted(ApplicationContext, long)} which watches all the kinds
+     * of an application at once
+     */
+    @Deprecated
     public static boolean waitForSecretToGetDeleted(ApplicationContext applicationContext) throws RuntimeProvisioningException {
         boolean isSecretDeleted = false;
         try {
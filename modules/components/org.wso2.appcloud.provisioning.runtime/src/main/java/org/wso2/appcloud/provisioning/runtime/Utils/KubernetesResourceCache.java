@@ -0,0 +1,314 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.Ingress;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.appcloud.common.util.AppCloudUtil;
+import org.wso2.appcloud.provisioning.runtime.KubernetesPovisioningConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared cache of the pods, deployments, services, ingresses and secrets of tenant namespaces, kept current by
+ * watches. The informer of a kind in a namespace is started when the kind is first read in the namespace, and is
+ * discarded once it is idle, once it reaches its maximum age so that it is listed again, or when its watch fails.
+ * <p>
+ * Methods return null when the cache is disabled, the informer could not be started, or the namespace was modified
+ * through {@link #markModified(String)} within Kubernetes.InformerCache.WriteBypass milliseconds, in which case the
+ * caller should read from the API server. The watches may not have delivered a change made just before.
+ */
+public class KubernetesResourceCache {
+
+    private static final Log log = LogFactory.getLog(KubernetesResourceCache.class);
+
+    private static final long SWEEP_INTERVAL = 60000;
+
+    private static final ResourceInformer.Source<Pod> POD_SOURCE = new ResourceInformer.Source<Pod>() {
+        @Override
+        public Watch watch(String namespace, Watcher<Pod> watcher) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).pods()
+                    .watch(watcher);
+        }
+
+        @Override
+        public List<Pod> list(String namespace) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).pods().list()
+                    .getItems();
+        }
+    };
+
+    private static final ResourceInformer.Source<Deployment> DEPLOYMENT_SOURCE =
+            new ResourceInformer.Source<Deployment>() {
+                @Override
+                public Watch watch(String namespace, Watcher<Deployment> watcher) {
+                    return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace)
+                            .extensions().deployments().watch(watcher);
+                }
+
+                @Override
+                public List<Deployment> list(String namespace) {
+                    return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace)
+                            .extensions().deployments().list().getItems();
+                }
+            };
+
+    private static final ResourceInformer.Source<Service> SERVICE_SOURCE = new ResourceInformer.Source<Service>() {
+        @Override
+        public Watch watch(String namespace, Watcher<Service> watcher) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).services()
+                    .watch(watcher);
+        }
+
+        @Override
+        public List<Service> list(String namespace) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).services().list()
+                    .getItems();
+        }
+    };
+
+    private static final ResourceInformer.Source<Ingress> INGRESS_SOURCE = new ResourceInformer.Source<Ingress>() {
+        @Override
+        public Watch watch(String namespace, Watcher<Ingress> watcher) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).extensions()
+                    .ingress().watch(watcher);
+        }
+
+        @Override
+        public List<Ingress> list(String namespace) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).extensions()
+                    .ingress().list().getItems();
+        }
+    };
+
+    private static final ResourceInformer.Source<Secret> SECRET_SOURCE = new ResourceInformer.Source<Secret>() {
+        @Override
+        public Watch watch(String namespace, Watcher<Secret> watcher) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).secrets()
+                    .watch(watcher);
+        }
+
+        @Override
+        public List<Secret> list(String namespace) {
+            return KubernetesProvisioningUtils.getFabric8KubernetesClient().inNamespace(namespace).secrets().list()
+                    .getItems();
+        }
+    };
+
+    /**
+     * Informers keyed by kind and namespace.
+     */
+    private static final ConcurrentMap<String, ResourceInformer<?>> informers = new ConcurrentHashMap<>();
+
+    /**
+     * Time of the last modification of each namespace, keyed by namespace name.
+     */
+    private static final ConcurrentMap<String, Long> modifiedTimes = new ConcurrentHashMap<>();
+
+    private static final boolean enabled = !"false".equalsIgnoreCase(
+            AppCloudUtil.getPropertyValue(KubernetesPovisioningConstants.INFORMER_CACHE_ENABLED));
+
+    private static final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "kubernetes-informer-sweeper-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    static {
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sweep();
+                } catch (RuntimeException e) {
+                    log.error("Error while discarding idle Kubernetes informers", e);
+                }
+            }
+        }, SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private KubernetesResourceCache() {
+    }
+
+    public static List<Pod> getPods(String namespace, Map<String, String> selector) {
+        return get(KubernetesPovisioningConstants.KIND_POD, namespace, selector, POD_SOURCE);
+    }
+
+    public static List<Deployment> getDeployments(String namespace, Map<String, String> selector) {
+        return get(KubernetesPovisioningConstants.KIND_DEPLOYMENT, namespace, selector, DEPLOYMENT_SOURCE);
+    }
+
+    public static List<Service> getServices(String namespace, Map<String, String> selector) {
+        return get(KubernetesPovisioningConstants.KIND_SERVICE, namespace, selector, SERVICE_SOURCE);
+    }
+
+    public static List<Ingress> getIngresses(String namespace, Map<String, String> selector) {
+        return get(KubernetesPovisioningConstants.KIND_INGRESS, namespace, selector, INGRESS_SOURCE);
+    }
+
+    public static List<Secret> getSecrets(String namespace, Map<String, String> selector) {
+        return get(KubernetesPovisioningConstants.KIND_SECRETS, namespace, selector, SECRET_SOURCE);
+    }
+
+    /**
+     * Read the objects of a namespace from the API server for a while, e.g. after creating, updating or deleting
+     * objects in the namespace.
+     *
+     * @param namespace name of the namespace
+     */
+    public static void markModified(String namespace) {
+        modifiedTimes.put(namespace, System.currentTimeMillis());
+    }
+
+    /**
+     * Discard the informers of a namespace, e.g. once the namespace is deleted.
+     *
+     * @param namespace name of the namespace
+     */
+    public static void invalidate(String namespace) {
+        for (Map.Entry<String, ResourceInformer<?>> entry : informers.entrySet()) {
+            if (entry.getKey().endsWith("/" + namespace)) {
+                discard(entry.getKey(), entry.getValue());
+            }
+        }
+        modifiedTimes.remove(namespace);
+    }
+
+    /**
+     * Close all the informers and stop discarding idle informers.
+     */
+    public static void shutdown() {
+        sweeper.shutdownNow();
+        for (Map.Entry<String, ResourceInformer<?>> entry : informers.entrySet()) {
+            discard(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends HasMetadata> List<T> get(String kind, String namespace, Map<String, String> selector,
+            ResourceInformer.Source<T> source) {
+        if (!enabled || isRecentlyModified(namespace)) {
+            return null;
+        }
+        String key = kind + "/" + namespace;
+        ResourceInformer<T> informer = (ResourceInformer<T>) informers.get(key);
+        if (informer == null || informer.isClosed()) {
+            if (informer != null) {
+                discard(key, informer);
+            }
+            ResourceInformer<T> newInformer = new ResourceInformer<>(kind, namespace);
+            informer = (ResourceInformer<T>) informers.putIfAbsent(key, newInformer);
+            if (informer == null) {
+                informer = newInformer;
+            }
+        }
+        if (!informer.start(source)) {
+            discard(key, informer);
+            return null;
+        }
+        return informer.get(selector);
+    }
+
+    private static boolean isRecentlyModified(String namespace) {
+        Long modifiedTime = modifiedTimes.get(namespace);
+        if (modifiedTime == null) {
+            return false;
+        }
+        int writeBypass = KubernetesProvisioningUtils.getIntPropertyValue(
+                KubernetesPovisioningConstants.INFORMER_CACHE_WRITE_BYPASS,
+                KubernetesPovisioningConstants.DEFAULT_INFORMER_CACHE_WRITE_BYPASS);
+        if (System.currentTimeMillis() - modifiedTime < writeBypass) {
+            return true;
+        }
+        modifiedTimes.remove(namespace, modifiedTime);
+        return false;
+    }
+
+    private static void discard(String key, ResourceInformer<?> informer) {
+        if (informers.remove(key, informer)) {
+            informer.close();
+            if (log.isDebugEnabled()) {
+                log.debug("Discarded Kubernetes informer: " + key);
+            }
+        }
+    }
+
+    /**
+     * Discard the informers which are closed, idle or older than the maximum age, and the least recently used
+     * informers exceeding the maximum number of informers.
+     */
+    private static void sweep() {
+        long now = System.currentTimeMillis();
+        int idleTimeout = KubernetesProvisioningUtils.getIntPropertyValue(
+                KubernetesPovisioningConstants.INFORMER_CACHE_IDLE_TIMEOUT,
+                KubernetesPovisioningConstants.DEFAULT_INFORMER_CACHE_IDLE_TIMEOUT);
+        int maxAge = KubernetesProvisioningUtils.getIntPropertyValue(
+                KubernetesPovisioningConstants.INFORMER_CACHE_MAX_AGE,
+                KubernetesPovisioningConstants.DEFAULT_INFORMER_CACHE_MAX_AGE);
+        int maxInformers = KubernetesProvisioningUtils.getIntPropertyValue(
+                KubernetesPovisioningConstants.INFORMER_CACHE_MAX_INFORMERS,
+                KubernetesPovisioningConstants.DEFAULT_INFORMER_CACHE_MAX_INFORMERS);
+
+        List<Map.Entry<String, ResourceInformer<?>>> liveInformers = new ArrayList<>();
+        for (Map.Entry<String, ResourceInformer<?>> entry : informers.entrySet()) {
+            ResourceInformer<?> informer = entry.getValue();
+            if (informer.isClosed() || now - informer.getLastAccessTime() > idleTimeout
+                    || now - informer.getCreatedTime() > maxAge) {
+                discard(entry.getKey(), informer);
+            } else {
+                liveInformers.add(entry);
+            }
+        }
+        if (liveInformers.size() > maxInformers) {
+            Collections.sort(liveInformers, new Comparator<Map.Entry<String, ResourceInformer<?>>>() {
+                @Override
+                public int compare(Map.Entry<String, ResourceInformer<?>> entry1,
+                        Map.Entry<String, ResourceInformer<?>> entry2) {
+                    return Long.compare(entry1.getValue().getLastAccessTime(), entry2.getValue().getLastAccessTime());
+                }
+            });
+            for (int i = 0; i < liveInformers.size() - maxInformers; i++) {
+                discard(liveInformers.get(i).getKey(), liveInformers.get(i).getValue());
+            }
+        }
+    }
+}
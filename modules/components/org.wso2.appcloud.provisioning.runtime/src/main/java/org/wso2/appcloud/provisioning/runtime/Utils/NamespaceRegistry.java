@@ -0,0 +1,165 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.client.AutoAdaptableKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide registry of the namespaces available in the cluster. The namespaces are listed once and kept current
+ * by a namespace watch, hence checking whether the namespace of a tenant exists does not list all the namespaces of
+ * the cluster. If the watch fails, the namespaces are listed again on the next lookup.
+ */
+public class NamespaceRegistry {
+
+    private static final Log log = LogFactory.getLog(NamespaceRegistry.class);
+
+    private static final Set<String> knownNamespaces =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final Set<String> deletedBeforeSync =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final Object lock = new Object();
+    private static volatile boolean synced;
+    private static Watch watch;
+
+    private NamespaceRegistry() {
+    }
+
+    /**
+     * Create the given namespace unless it already exists. Namespaces created concurrently by other nodes are
+     * treated as existing.
+     *
+     * @param namespace namespace to be created
+     */
+    public static void ensureNamespace(Namespace namespace) {
+        String name = namespace.getMetadata().getName();
+        if (knownNamespaces.contains(name)) {
+            return;
+        }
+        sync();
+        if (knownNamespaces.contains(name)) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Namespace not available hence creating namespace: " + name);
+        }
+        try {
+            KubernetesProvisioningUtils.getFabric8KubernetesClient().namespaces().create(namespace);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                throw e;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Namespace: " + name + " was created by another node");
+            }
+        }
+        knownNamespaces.add(name);
+    }
+
+    /**
+     * Remove a namespace from the registry, e.g. once its deletion is requested.
+     *
+     * @param name name of the namespace
+     */
+    public static void forget(String name) {
+        knownNamespaces.remove(name);
+    }
+
+    /**
+     * Close the namespace watch and clear the registry.
+     */
+    public static void shutdown() {
+        synchronized (lock) {
+            closeWatch();
+            synced = false;
+            knownNamespaces.clear();
+        }
+    }
+
+    /**
+     * Open the namespace watch and list the namespaces, unless the registry is in sync with the cluster.
+     */
+    private static void sync() {
+        if (synced) {
+            return;
+        }
+        synchronized (lock) {
+            if (synced) {
+                return;
+            }
+            closeWatch();
+            knownNamespaces.clear();
+            AutoAdaptableKubernetesClient kubernetesClient = KubernetesProvisioningUtils.getFabric8KubernetesClient();
+            watch = kubernetesClient.namespaces().watch(new Watcher<Namespace>() {
+                @Override
+                public void eventReceived(Action action, Namespace namespace) {
+                    String name = namespace.getMetadata().getName();
+                    if (action == Action.ADDED || action == Action.MODIFIED) {
+                        knownNamespaces.add(name);
+                        deletedBeforeSync.remove(name);
+                    } else if (action == Action.DELETED) {
+                        knownNamespaces.remove(name);
+                        if (!synced) {
+                            deletedBeforeSync.add(name);
+                        }
+                    }
+                }
+
+                @Override
+                public void onClose(KubernetesClientException cause) {
+                    if (cause != null) {
+                        log.warn("Namespace watch was closed, hence namespaces will be listed again", cause);
+                        synced = false;
+                    }
+                }
+            });
+            for (Namespace namespace : kubernetesClient.namespaces().list().getItems()) {
+                String name = namespace.getMetadata().getName();
+                // namespaces deleted after opening the watch may still be in the list result
+                if (!deletedBeforeSync.contains(name)) {
+                    knownNamespaces.add(name);
+                }
+            }
+            deletedBeforeSync.clear();
+            synced = true;
+            if (log.isDebugEnabled()) {
+                log.debug("Loaded " + knownNamespaces.size() + " namespaces to the namespace registry");
+            }
+        }
+    }
+
+    private static void closeWatch() {
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (Exception e) {
+                log.warn("Error while closing namespace watch", e);
+            }
+            watch = null;
+        }
+    }
+}
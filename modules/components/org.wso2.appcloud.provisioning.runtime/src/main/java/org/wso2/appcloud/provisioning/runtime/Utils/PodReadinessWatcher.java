@@ -0,0 +1,102 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pod watcher which completes the given future once the expected number of pods of an application are running.
+ * Pods which are being terminated, e.g. pods of a previous deployment of the same version, are not counted.
+ */
+public class PodReadinessWatcher implements Watcher<Pod> {
+
+    private static final Log log = LogFactory.getLog(PodReadinessWatcher.class);
+    private static final String POD_STATUS_RUNNING = "Running";
+
+    private final ConcurrentMap<String, Pod> pods = new ConcurrentHashMap<>();
+    private final int replicas;
+    private final WatchFuture<Boolean> future;
+
+    /**
+     * @param replicas number of pods which should be running
+     * @param future   future to be completed when the pods are running
+     */
+    public PodReadinessWatcher(int replicas, WatchFuture<Boolean> future) {
+        this.replicas = replicas > 0 ? replicas : 1;
+        this.future = future;
+    }
+
+    @Override
+    public void eventReceived(Action action, Pod pod) {
+        String podName = pod.getMetadata().getName();
+        if (log.isDebugEnabled()) {
+            log.debug("Received " + action + " event for pod: " + podName + " with status: "
+                    + KubernetesHelper.getPodStatusText(pod));
+        }
+        switch (action) {
+            case ADDED:
+            case MODIFIED:
+                pods.put(podName, pod);
+                break;
+            case DELETED:
+                pods.remove(podName);
+                break;
+            default:
+                return;
+        }
+        checkReadiness();
+    }
+
+    @Override
+    public void onClose(KubernetesClientException cause) {
+        if (cause != null) {
+            future.fail(cause);
+        }
+    }
+
+    /**
+     * Add a pod obtained from a list call made after the watch was opened. Pods already known from watch events are
+     * not overwritten, since the events are newer than the list result.
+     *
+     * @param pod pod of the application
+     */
+    public void addInitialPod(Pod pod) {
+        pods.putIfAbsent(pod.getMetadata().getName(), pod);
+        checkReadiness();
+    }
+
+    private void checkReadiness() {
+        int runningPods = 0;
+        for (Pod pod : pods.values()) {
+            if (pod.getMetadata().getDeletionTimestamp() == null
+                    && POD_STATUS_RUNNING.equals(KubernetesHelper.getPodStatusText(pod))) {
+                runningPods++;
+            }
+        }
+        if (runningPods >= replicas) {
+            future.complete(true);
+        }
+    }
+}
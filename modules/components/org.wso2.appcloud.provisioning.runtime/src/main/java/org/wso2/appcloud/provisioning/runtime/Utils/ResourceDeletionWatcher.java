@@ -0,0 +1,145 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks the objects of several Kubernetes kinds through watches and completes the given future once objects of
+ * all the watched kinds are deleted.
+ */
+public class ResourceDeletionWatcher {
+
+    private static final Log log = LogFactory.getLog(ResourceDeletionWatcher.class);
+
+    private final WatchFuture<Boolean> future;
+    private final List<KindWatcher<?>> kindWatchers = new CopyOnWriteArrayList<>();
+    private volatile boolean started;
+
+    /**
+     * @param future future to be completed when all the watched objects are deleted
+     */
+    public ResourceDeletionWatcher(WatchFuture<Boolean> future) {
+        this.future = future;
+    }
+
+    /**
+     * Create a watcher for the given kind. The returned watcher should be registered as a watch and then be given
+     * the objects currently available through {@link KindWatcher#addExisting(List)}.
+     *
+     * @param kind Kubernetes kind to be watched
+     * @param <T>  type of the Kubernetes objects
+     * @return watcher for the given kind
+     */
+    public <T extends HasMetadata> KindWatcher<T> watchKind(String kind) {
+        KindWatcher<T> kindWatcher = new KindWatcher<>(kind);
+        kindWatchers.add(kindWatcher);
+        return kindWatcher;
+    }
+
+    /**
+     * Start checking for deletion. This should be called once the existing objects of all kinds are added, so that
+     * the future is not completed while a kind is yet to be listed.
+     */
+    public void start() {
+        started = true;
+        checkDeletion();
+    }
+
+    private void checkDeletion() {
+        if (!started) {
+            return;
+        }
+        for (KindWatcher<?> kindWatcher : kindWatchers) {
+            if (!kindWatcher.objects.isEmpty()) {
+                return;
+            }
+        }
+        future.complete(true);
+    }
+
+    /**
+     * Watcher which keeps the names of the available objects of one kind.
+     *
+     * @param <T> type of the Kubernetes objects
+     */
+    public class KindWatcher<T extends HasMetadata> implements Watcher<T> {
+
+        private final String kind;
+        private final Set<String> objects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private final Set<String> deletedObjects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private KindWatcher(String kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            String name = resource.getMetadata().getName();
+            if (log.isDebugEnabled()) {
+                log.debug("Received " + action + " event for " + kind + ": " + name);
+            }
+            switch (action) {
+                case ADDED:
+                case MODIFIED:
+                    objects.add(name);
+                    deletedObjects.remove(name);
+                    break;
+                case DELETED:
+                    deletedObjects.add(name);
+                    objects.remove(name);
+                    break;
+                default:
+                    return;
+            }
+            checkDeletion();
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            if (cause != null) {
+                future.fail(cause);
+            }
+        }
+
+        /**
+         * Add objects obtained from a list call made after the watch was opened. Objects already reported as deleted
+         * by the watch are skipped.
+         *
+         * @param resources objects currently available
+         */
+        public void addExisting(List<? extends HasMetadata> resources) {
+            for (HasMetadata resource : resources) {
+                String name = resource.getMetadata().getName();
+                if (!deletedObjects.contains(name)) {
+                    objects.add(name);
+                }
+            }
+            checkDeletion();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In memory copy of the objects of one Kubernetes kind in a namespace, kept current by a watch. Objects are indexed
+ * by the version hash id label, hence looking up the objects of an application version does not scan the namespace.
+ *
+ * @param <T> type of the Kubernetes objects
+ */
+class ResourceInformer<T extends HasMetadata> implements Watcher<T> {
+
+    private static final Log log = LogFactory.getLog(ResourceInformer.class);
+
+    static final String INDEXED_LABEL = "versionHashId";
+
+    /**
+     * Opens watches and lists the objects of a kind.
+     *
+     * @param <T> type of the Kubernetes objects
+     */
+    interface Source<T extends HasMetadata> {
+
+        Watch watch(String namespace, Watcher<T> watcher);
+
+        List<T> list(String namespace);
+    }
+
+    private final String kind;
+    private final String namespace;
+    private final long createdTime = System.currentTimeMillis();
+    private final Map<String, T> objects = new HashMap<>();
+    private final Map<String, Set<String>> labelIndex = new HashMap<>();
+    private final Set<String> deletedBeforeSync = new HashSet<>();
+    private Watch watch;
+    private volatile boolean synced;
+    private volatile boolean closed;
+    private volatile long lastAccessTime = createdTime;
+
+    ResourceInformer(String kind, String namespace) {
+        this.kind = kind;
+        this.namespace = namespace;
+    }
+
+    /**
+     * Open the watch and load the current objects, unless already done. The watch is opened before listing, so no
+     * change made after the list is missed.
+     *
+     * @param source source of the objects
+     * @return false if the informer could not be started, or has been closed
+     */
+    synchronized boolean start(Source<T> source) {
+        if (synced || closed) {
+            return synced && !closed;
+        }
+        try {
+            watch = source.watch(namespace, this);
+            List<T> items = source.list(namespace);
+            for (T item : items) {
+                String name = item.getMetadata().getName();
+                // objects changed through the watch meanwhile are newer than the list result
+                if (!objects.containsKey(name) && !deletedBeforeSync.contains(name)) {
+                    put(item);
+                }
+            }
+            deletedBeforeSync.clear();
+            synced = true;
+            if (log.isDebugEnabled()) {
+                log.debug("Started informer of " + kind + " in namespace: " + namespace + " with " + objects.size()
+                        + " objects");
+            }
+            return true;
+        } catch (KubernetesClientException e) {
+            log.warn("Error while starting informer of " + kind + " in namespace: " + namespace
+                    + ", hence reading from the API server", e);
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * @param selector labels the objects should have, all the objects of the namespace are returned if empty
+     * @return matching objects, which are shared and must not be modified
+     */
+    synchronized List<T> get(Map<String, String> selector) {
+        lastAccessTime = System.currentTimeMillis();
+        Collection<T> candidates;
+        String indexedValue = selector.get(INDEXED_LABEL);
+        if (indexedValue != null) {
+            candidates = new ArrayList<>();
+            Set<String> names = labelIndex.get(indexedValue);
+            if (names != null) {
+                for (String name : names) {
+                    candidates.add(objects.get(name));
+                }
+            }
+        } else {
+            candidates = objects.values();
+        }
+        List<T> matches = new ArrayList<>();
+        for (T candidate : candidates) {
+            if (hasLabels(candidate, selector)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized void eventReceived(Action action, T resource) {
+        String name = resource.getMetadata().getName();
+        switch (action) {
+            case ADDED:
+            case MODIFIED:
+                remove(name);
+                put(resource);
+                deletedBeforeSync.remove(name);
+                break;
+            case DELETED:
+                remove(name);
+                if (!synced) {
+                    deletedBeforeSync.add(name);
+                }
+                break;
+            default:
+                log.warn("Received " + action + " event for " + kind + ": " + name + " in namespace: " + namespace);
+        }
+    }
+
+    @Override
+    public void onClose(KubernetesClientException cause) {
+        if (cause != null) {
+            log.warn("Watch of " + kind + " in namespace: " + namespace + " was closed, hence the informer is "
+                    + "discarded", cause);
+            closed = true;
+        }
+    }
+
+    /**
+     * Close the watch. The informer can not be used afterwards.
+     */
+    synchronized void close() {
+        closed = true;
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (Exception e) {
+                log.warn("Error while closing watch of " + kind + " in namespace: " + namespace, e);
+            }
+            watch = null;
+        }
+        objects.clear();
+        labelIndex.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    long getCreatedTime() {
+        return createdTime;
+    }
+
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    private void put(T resource) {
+        String name = resource.getMetadata().getName();
+        objects.put(name, resource);
+        String indexedValue = getLabel(resource, INDEXED_LABEL);
+        if (indexedValue != null) {
+            Set<String> names = labelIndex.get(indexedValue);
+            if (names == null) {
+                names = new HashSet<>();
+                labelIndex.put(indexedValue, names);
+            }
+            names.add(name);
+        }
+    }
+
+    private void remove(String name) {
+        T resource = objects.remove(name);
+        if (resource == null) {
+            return;
+        }
+        String indexedValue = getLabel(resource, INDEXED_LABEL);
+        Set<String> names = indexedValue != null ? labelIndex.get(indexedValue) : null;
+        if (names != null) {
+            names.remove(name);
+            if (names.isEmpty()) {
+                labelIndex.remove(indexedValue);
+            }
+        }
+    }
+
+    private static boolean hasLabels(HasMetadata resource, Map<String, String> selector) {
+        for (Map.Entry<String, String> label : selector.entrySet()) {
+            if (!label.getValue().equals(getLabel(resource, label.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getLabel(HasMetadata resource, String key) {
+        Map<String, String> labels = resource.getMetadata().getLabels();
+        return labels != null ? labels.get(key) : null;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.Utils;
+
+import io.fabric8.kubernetes.client.Watch;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Future which is completed by Kubernetes watch events. All the watches registered with the future are closed once
+ * it is completed, failed, cancelled or timed out.
+ *
+ * @param <T> type of the result
+ */
+public class WatchFuture<T> implements Future<T> {
+
+    private static final Log log = LogFactory.getLog(WatchFuture.class);
+
+    private static final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "kubernetes-watch-timeout-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+    private final String description;
+    private volatile ScheduledFuture<?> timeoutTask;
+    private volatile T result;
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+
+    /**
+     * @param description description of the awaited condition, used in log and error messages
+     */
+    public WatchFuture(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Register a watch to be closed when the future is done. If the future is already done the watch is closed
+     * immediately.
+     *
+     * @param watch watch feeding this future
+     */
+    public void addWatch(Watch watch) {
+        watches.add(watch);
+        if (isDone()) {
+            closeWatches();
+        }
+    }
+
+    /**
+     * Fail the future with a {@link TimeoutException} if it is not completed within the given time.
+     *
+     * @param timeout  maximum time to wait
+     * @param timeUnit unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit timeUnit) {
+        timeoutTask = timeoutScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                fail(new TimeoutException("Timed out while waiting until " + description));
+            }
+        }, timeout, timeUnit);
+    }
+
+    /**
+     * Complete the future with the given result.
+     *
+     * @param value result of the future
+     * @return true if this call completed the future
+     */
+    public boolean complete(T value) {
+        synchronized (done) {
+            if (isDone()) {
+                return false;
+            }
+            result = value;
+            done.countDown();
+        }
+        onDone();
+        if (log.isDebugEnabled()) {
+            log.debug("Completed waiting until " + description);
+        }
+        return true;
+    }
+
+    /**
+     * Fail the future with the given cause.
+     *
+     * @param cause cause of the failure
+     * @return true if this call failed the future
+     */
+    public boolean fail(Throwable cause) {
+        synchronized (done) {
+            if (isDone()) {
+                return false;
+            }
+            failure = cause;
+            done.countDown();
+        }
+        onDone();
+        log.warn("Failed while waiting until " + description + ": " + cause.getMessage());
+        return true;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (done) {
+            if (isDone()) {
+                return false;
+            }
+            cancelled = true;
+            done.countDown();
+        }
+        onDone();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("Timed out while waiting until " + description);
+        }
+        return getResult();
+    }
+
+    private T getResult() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException("Cancelled waiting until " + description);
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return result;
+    }
+
+    private void onDone() {
+        ScheduledFuture<?> task = timeoutTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        closeWatches();
+    }
+
+    private void closeWatches() {
+        for (Watch watch : watches) {
+            if (watches.remove(watch)) {
+                try {
+                    watch.close();
+                } catch (Exception e) {
+                    log.warn("Error while closing watch used for waiting until " + description, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.beans;
+
+/**
+ * Deployment of an application version submitted through
+ * {@link org.wso2.appcloud.provisioning.runtime.KubernetesBulkDeploymentService}.
+ */
+public class BulkDeploymentRequest {
+
+    private ApplicationContext applicationContext;
+    private ResourceQuotaLimit resourceQuotaLimit;
+    private DeploymentConfig deploymentConfig;
+    private boolean redeploy;
+    private long podRunningTimeout;
+
+    public ApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    public ResourceQuotaLimit getResourceQuotaLimit() {
+        return resourceQuotaLimit;
+    }
+
+    public void setResourceQuotaLimit(ResourceQuotaLimit resourceQuotaLimit) {
+        this.resourceQuotaLimit = resourceQuotaLimit;
+    }
+
+    public DeploymentConfig getDeploymentConfig() {
+        return deploymentConfig;
+    }
+
+    public void setDeploymentConfig(DeploymentConfig deploymentConfig) {
+        this.deploymentConfig = deploymentConfig;
+    }
+
+    /**
+     * @return whether the existing kinds of the version are deleted before deploying
+     */
+    public boolean isRedeploy() {
+        return redeploy;
+    }
+
+    public void setRedeploy(boolean redeploy) {
+        this.redeploy = redeploy;
+    }
+
+    /**
+     * @return maximum time in milliseconds to wait until the pods are running, or 0 to not wait
+     */
+    public long getPodRunningTimeout() {
+        return podRunningTimeout;
+    }
+
+    public void setPodRunningTimeout(long podRunningTimeout) {
+        this.podRunningTimeout = podRunningTimeout;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+* Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.wso2.appcloud.provisioning.runtime.beans;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a deployment submitted through
+ * {@link org.wso2.appcloud.provisioning.runtime.KubernetesBulkDeploymentService}.
+ */
+public class BulkDeploymentResult {
+
+    private String versionHashId;
+    private boolean deployed;
+    private boolean running;
+    private List<String> serviceNames = Collections.emptyList();
+    private String errorMessage;
+
+    public String getVersionHashId() {
+        return versionHashId;
+    }
+
+    public void setVersionHashId(String versionHashId) {
+        this.versionHashId = versionHashId;
+    }
+
+    /**
+     * @return whether the deployment and the services were created
+     */
+    public boolean isDeployed() {
+        return deployed;
+    }
+
+    public void setDeployed(boolean deployed) {
+        this.deployed = deployed;
+    }
+
+    /**
+     * @return whether the pods were running within the timeout, false if it was not waited for the pods
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public List<String> getServiceNames() {
+        return serviceNames;
+    }
+
+    public void setServiceNames(List<String> serviceNames) {
+        this.serviceNames = serviceNames;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -20,6 +20,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesProvisioningUtils;
+import org.wso2.appcloud.provisioning.runtime.Utils.KubernetesResourceCache;
+import org.wso2.appcloud.provisioning.runtime.Utils.NamespaceRegistry;
 
 /**
  * @scr.component name="org.wso2.appcloud.provisioning.runtime.internal.RuntimeProvisioningServiceComonent" immediate="true"
@@ -35,7 +38,9 @@ public class RuntimeProvisioningServiceComonent {
     }
 
     protected void deactivate(org.osgi.service.component.ComponentContext context) {
-
+        KubernetesResourceCache.shutdown();
+        NamespaceRegistry.shutdown();
+        KubernetesProvisioningUtils.closeFabric8KubernetesClients();
     }
 
     public static BundleContext getBundleContext() {
@@ -0,0 +1,44 @@
+--
+--  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+--
+--    WSO2 Inc. licenses this file to you under the Apache License,
+--    Version 2.0 (the "License"); you may not use this file except
+--    in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing,
+--    software distributed under the License is distributed on an
+--    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+--    KIND, either express or implied.  See the License for the
+--    specific language governing permissions and limitations
+--    under the License.
+--
+
+-- Indexes matching the lookup predicates of the queries in SQLQueryConstants. Run the QueryPlanChecker tool in
+-- modules/setup-scripts/tools/queryplanchecker against the database to list the queries which still scan a full table.
+
+-- Lookups of applications by hash id, by tenant and cloud, and by custom domain
+ALTER TABLE `AC_APPLICATION`
+  ADD INDEX `idx_AC_APPLICATION_hash_id_tenant_id` (`hash_id`, `tenant_id`),
+  ADD INDEX `idx_AC_APPLICATION_tenant_id_cloud_id` (`tenant_id`, `cloud_id`),
+  ADD INDEX `idx_AC_APPLICATION_custom_domain` (`custom_domain`);
+
+-- Lookups of versions by hash id, and of versions in a status across or within tenants
+ALTER TABLE `AC_VERSION`
+  ADD INDEX `idx_AC_VERSION_hash_id_tenant_id` (`hash_id`, `tenant_id`),
+  ADD INDEX `idx_AC_VERSION_status_tenant_id` (`status`, `tenant_id`);
+
+-- Latest event of each name of a version, and deletion of the events of a tenant
+ALTER TABLE `AC_EVENT`
+  ADD INDEX `idx_AC_EVENT_version_id_name_id` (`version_id`, `name`, `id`),
+  ADD INDEX `idx_AC_EVENT_tenant_id` (`tenant_id`);
+
+-- Deletion of the deployments of a tenant
+ALTER TABLE `AC_DEPLOYMENT`
+  ADD INDEX `idx_AC_DEPLOYMENT_tenant_id` (`tenant_id`);
+
+-- Custom images of a tenant, optionally in a status
+ALTER TABLE `AC_CUSTOM_DOCKER_IMAGES`
+  ADD INDEX `idx_AC_CUSTOM_DOCKER_IMAGES_tenant_id_status` (`tenant_id`, `status`);
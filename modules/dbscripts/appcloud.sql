@@ -116,6 +116,9 @@ CREATE TABLE IF NOT EXISTS `AppCloudDB`.`AC_APPLICATION` (
   `cloud_id` VARCHAR(50) NOT NULL,
   PRIMARY KEY (`id`),
   CONSTRAINT uk_Application_NAME_TID_REV UNIQUE(`name`, `tenant_id`),
+  INDEX `idx_AC_APPLICATION_hash_id_tenant_id` (`hash_id`, `tenant_id`),
+  INDEX `idx_AC_APPLICATION_tenant_id_cloud_id` (`tenant_id`, `cloud_id`),
+  INDEX `idx_AC_APPLICATION_custom_domain` (`custom_domain`),
   CONSTRAINT `fk_Application_ApplicationType1`
     FOREIGN KEY (`app_type_id`)
     REFERENCES `AppCloudDB`.`AC_APP_TYPE` (`id`)
@@ -132,7 +135,8 @@ CREATE TABLE IF NOT EXISTS `AppCloudDB`.`AC_DEPLOYMENT` (
   `name` VARCHAR(100) NULL,
   `replicas` INT NULL,
   `tenant_id` INT NULL,
-  PRIMARY KEY (`id`))
+  PRIMARY KEY (`id`),
+  INDEX `idx_AC_DEPLOYMENT_tenant_id` (`tenant_id`))
 ENGINE = InnoDB;
 
 
@@ -154,6 +158,8 @@ CREATE TABLE IF NOT EXISTS `AppCloudDB`.`AC_VERSION` (
   `is_white_listed` TINYINT unsigned NOT NULL DEFAULT 0,
   `exposure_level` varchar(24) NOT NULL,
   PRIMARY KEY (`id`),
+  INDEX `idx_AC_VERSION_hash_id_tenant_id` (`hash_id`, `tenant_id`),
+  INDEX `idx_AC_VERSION_status_tenant_id` (`status`, `tenant_id`),
   CONSTRAINT `fk_AC_VERSION_AC_APPLICATION1`
     FOREIGN KEY (`application_id`)
     REFERENCES `AppCloudDB`.`AC_APPLICATION` (`id`)
@@ -302,7 +308,9 @@ CREATE TABLE IF NOT EXISTS `AppCloudDB`.`AC_EVENT` (
   `timestamp` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `description` VARCHAR(1000) NULL,
   `tenant_id` INT NULL,
-  PRIMARY KEY (`id`))
+  PRIMARY KEY (`id`),
+  INDEX `idx_AC_EVENT_version_id_name_id` (`version_id`, `name`, `id`),
+  INDEX `idx_AC_EVENT_tenant_id` (`tenant_id`))
 ENGINE = InnoDB;
 
 
@@ -626,6 +634,7 @@ CREATE TABLE IF NOT EXISTS `AppCloudDB`.`AC_CUSTOM_DOCKER_IMAGES` (
   `test_results_json` VARCHAR(500) NULL,
   `status` VARCHAR(10) NULL,
   `last_updated` DATETIME NULL,
-  PRIMARY KEY (`image_id`))
+  PRIMARY KEY (`image_id`),
+  INDEX `idx_AC_CUSTOM_DOCKER_IMAGES_tenant_id_status` (`tenant_id`, `status`))
 ENGINE = InnoDB;
 
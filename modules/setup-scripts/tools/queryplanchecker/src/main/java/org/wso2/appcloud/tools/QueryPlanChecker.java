@@ -0,0 +1,175 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.appcloud.tools;
+
+import org.wso2.appcloud.core.SQLQueryConstants;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Command line tool which runs EXPLAIN over all the queries in {@link SQLQueryConstants} against a database created
+ * with the app cloud dbscripts, and reports the queries which scan a full table. Both MySQL and H2 are supported.
+ * <p>
+ * Usage, with the JDBC driver of the database in the class path:
+ * <pre>
+ * mvn package
+ * java -cp target/queryplanchecker.jar:org.wso2.appcloud.core.jar:mysql-connector-java.jar \
+ *     org.wso2.appcloud.tools.QueryPlanChecker jdbc:mysql://localhost:3306/AppCloudDB root root
+ * </pre>
+ * Query parameters are replaced with sample literals, so the plans are the plans of lookups by a single value. The
+ * exit status is 1 if any query scans a full table and 2 if any query could not be explained.
+ */
+public class QueryPlanChecker {
+
+    private static final Pattern LIMIT_PARAMETER = Pattern.compile("(?i)\\bLIMIT\\s+\\?");
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+    private static final Pattern STATEMENT = Pattern.compile("(?is)^\\s*(SELECT|INSERT|UPDATE|DELETE)\\b.*");
+    private static final Pattern VALUES_INSERT = Pattern.compile("(?is)^\\s*INSERT\\b.*\\bVALUES\\b.*");
+    private static final String MYSQL_FULL_SCAN = "ALL";
+    private static final String H2_FULL_SCAN = ".tableScan";
+
+    private final Connection connection;
+    private final boolean isH2;
+    private final List<String> fullScans = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+
+    public QueryPlanChecker(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.isH2 = connection.getMetaData().getDatabaseProductName().toUpperCase().contains("H2");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: QueryPlanChecker <jdbc url> [<username> [<password>]]");
+            System.exit(-1);
+        }
+        String username = args.length > 1 ? args[1] : null;
+        String password = args.length > 2 ? args[2] : null;
+        try (Connection connection = DriverManager.getConnection(args[0], username, password)) {
+            QueryPlanChecker checker = new QueryPlanChecker(connection);
+            checker.check(getQueries());
+            System.exit(checker.getFailures().isEmpty() ? (checker.getFullScans().isEmpty() ? 0 : 1) : 2);
+        }
+    }
+
+    /**
+     * @return the queries declared in {@link SQLQueryConstants}, keyed by the name of the constant
+     * @throws IllegalAccessException if a constant could not be read
+     */
+    public static Map<String, String> getQueries() throws IllegalAccessException {
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (Field field : SQLQueryConstants.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers) && field.getType() == String.class) {
+                String value = (String) field.get(null);
+                if (value != null && STATEMENT.matcher(value).matches()) {
+                    queries.put(field.getName(), value);
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Explain the given queries and print the plans scanning a full table. INSERT statements with a VALUES clause do
+     * not read any table, hence they are skipped.
+     *
+     * @param queries queries keyed by name
+     */
+    public void check(Map<String, String> queries) {
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            if (VALUES_INSERT.matcher(query.getValue()).matches()) {
+                continue;
+            }
+            try {
+                List<String> scannedTables = explain(query.getValue());
+                if (!scannedTables.isEmpty()) {
+                    fullScans.add(query.getKey());
+                    System.out.println("FULL SCAN   " + query.getKey() + " on " + scannedTables);
+                } else {
+                    System.out.println("OK          " + query.getKey());
+                }
+            } catch (SQLException e) {
+                failures.add(query.getKey());
+                System.out.println("NOT CHECKED " + query.getKey() + " : " + e.getMessage());
+            }
+        }
+        System.out.println(queries.size() + " queries, " + fullScans.size() + " with full scans, " + failures.size()
+                + " not checked");
+    }
+
+    public List<String> getFullScans() {
+        return fullScans;
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @param query query to explain
+     * @return tables scanned fully by the query
+     * @throws SQLException if the query could not be explained
+     */
+    private List<String> explain(String query) throws SQLException {
+        String explainableQuery = PARAMETER.matcher(LIMIT_PARAMETER.matcher(query.trim()).replaceAll("LIMIT 1"))
+                .replaceAll("'1'");
+        if (explainableQuery.endsWith(";")) {
+            explainableQuery = explainableQuery.substring(0, explainableQuery.length() - 1);
+        }
+        List<String> scannedTables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + explainableQuery)) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            while (resultSet.next()) {
+                if (isH2) {
+                    String plan = resultSet.getString(1);
+                    for (String line : plan.split("\n")) {
+                        if (line.contains(H2_FULL_SCAN)) {
+                            scannedTables.add(line.trim());
+                        }
+                    }
+                } else if (MYSQL_FULL_SCAN.equalsIgnoreCase(getColumn(resultSet, metaData, "type"))) {
+                    scannedTables.add(getColumn(resultSet, metaData, "table"));
+                }
+            }
+        }
+        return scannedTables;
+    }
+
+    private static String getColumn(ResultSet resultSet, ResultSetMetaData metaData, String name)
+            throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return resultSet.getString(i);
+            }
+        }
+        return null;
+    }
+}